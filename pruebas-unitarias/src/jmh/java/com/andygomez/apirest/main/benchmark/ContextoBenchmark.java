@@ -0,0 +1,43 @@
+package com.andygomez.apirest.main.benchmark;
+
+import com.andygomez.apirest.main.PruebasUnitariasApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Arranque compartido por los benchmarks: levanta la aplicacion contra una base H2
+ * propia y la llena con {@code empleados} filas sin pasar por JPA.
+ */
+final class ContextoBenchmark {
+
+    private ContextoBenchmark() {
+    }
+
+    static ConfigurableApplicationContext arrancar(WebApplicationType tipo, String baseDatos, String... propiedades) {
+        return new SpringApplicationBuilder(PruebasUnitariasApplication.class)
+                .web(tipo)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:" + baseDatos + ";DB_CLOSE_DELAY=-1",
+                        "server.port=0",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "empleados.cache.habilitado=false",
+                        //la cache de segundo nivel tambien ocultaria el coste de la base de datos
+                        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                        "empleados.limite.habilitado=false")
+                .properties(propiedades)
+                .run();
+    }
+
+    static void poblar(ConfigurableApplicationContext contexto, int empleados) {
+        JdbcTemplate jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("insert into empleados (id, nombre, apellido, email, version) "
+                + "select x, 'Nombre' || x, 'Apellido' || x, 'e' || x || '@empresa.com', 0 from system_range(1, ?)", empleados);
+        //la secuencia es pooled, se deja holgura para que los nuevos ids no choquen con los cargados
+        jdbcTemplate.execute("alter sequence empleados_seq restart with " + (empleados + 100));
+    }
+
+}
@@ -0,0 +1,94 @@
+package com.andygomez.apirest.main.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ida y vuelta HTTP completa contra el servidor embebido: filtro, controlador,
+ * servicio, JPA y serializacion.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmpleadoControllerBenchmark {
+
+    @Param({"1000", "100000"})
+    private int empleados;
+
+    private final AtomicLong secuenciaEmail = new AtomicLong();
+
+    private ConfigurableApplicationContext contexto;
+    private HttpClient cliente;
+    private String base;
+
+    @Setup(Level.Trial)
+    public void arrancar() {
+        contexto = ContextoBenchmark.arrancar(WebApplicationType.SERVLET, "benchmark-controlador-" + empleados);
+        ContextoBenchmark.poblar(contexto, empleados);
+        cliente = HttpClient.newHttpClient();
+        base = "http://localhost:" + contexto.getEnvironment().getProperty("local.server.port") + "/api/empleados";
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public String obtenerEmpleadoId() throws IOException, InterruptedException {
+        return enviar(HttpRequest.newBuilder(URI.create(base + "/" + idAleatorio())).GET().build());
+    }
+
+    @Benchmark
+    public String listarEmpleados() throws IOException, InterruptedException {
+        return enviar(HttpRequest.newBuilder(URI.create(base + "?after=" + idAleatorio() + "&limit=100")).GET().build());
+    }
+
+    @Benchmark
+    public String guardarEmpleado() throws IOException, InterruptedException {
+        String cuerpo = "{\"nombre\":\"Andy\",\"apellido\":\"Gomez\",\"email\":\"http"
+                + secuenciaEmail.incrementAndGet() + "@empresa.com\"}";
+        return enviar(HttpRequest.newBuilder(URI.create(base))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(cuerpo))
+                .build());
+    }
+
+    private String enviar(HttpRequest peticion) throws IOException, InterruptedException {
+        HttpResponse<String> respuesta = cliente.send(peticion, HttpResponse.BodyHandlers.ofString());
+        if (respuesta.statusCode() >= 400) {
+            throw new IllegalStateException("Respuesta inesperada " + respuesta.statusCode() + " de " + peticion.uri());
+        }
+        return respuesta.body();
+    }
+
+    private long idAleatorio() {
+        return ThreadLocalRandom.current().nextLong(1, empleados + 1);
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.andygomez.apirest.main.benchmark;
+
+import com.andygomez.apirest.main.model.Empleado;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coste de codificar y decodificar listas de empleados en JSON y en CBOR. Los bytes de cada
+ * formato se imprimen al preparar el benchmark; lista es el cuerpo de application/json o
+ * application/cbor y secuencia el de application/x-ndjson o application/cbor-seq.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmpleadoJacksonBenchmark {
+
+    @Param({"1", "100", "1000"})
+    private int empleados;
+
+    @Param({"json", "cbor"})
+    private String formato;
+
+    private ObjectMapper objectMapper;
+    private JavaType tipoLista;
+    private List<Empleado> lista;
+    private byte[] codificada;
+    private byte[] secuencia;
+
+    @Setup
+    public void preparar() throws IOException {
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+        objectMapper = formato.equals("cbor") ? json.copyWith(new CBORFactory()) : json;
+        tipoLista = objectMapper.getTypeFactory().constructCollectionType(List.class, Empleado.class);
+        lista = new ArrayList<>(empleados);
+        for (long i = 1; i <= empleados; i++) {
+            lista.add(Empleado.builder()
+                    .id(i)
+                    .nombre("Nombre" + i)
+                    .apellido("Apellido" + i)
+                    .email("e" + i + "@empresa.com")
+                    .build());
+        }
+        codificada = objectMapper.writeValueAsBytes(lista);
+        secuencia = serializarSecuencia();
+        System.out.printf("%n%s, %d empleados: lista %d bytes, secuencia %d bytes%n",
+                formato, empleados, codificada.length, secuencia.length);
+    }
+
+    @Benchmark
+    public byte[] serializar() throws JsonProcessingException {
+        return objectMapper.writerFor(tipoLista).writeValueAsBytes(lista);
+    }
+
+    @Benchmark
+    public List<Empleado> deserializar() throws IOException {
+        return objectMapper.readValue(codificada, tipoLista);
+    }
+
+    @Benchmark
+    public byte[] serializarSecuencia() throws IOException {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        //en NDJSON cada empleado va en su linea, en cbor-seq los items van seguidos sin separador
+        ObjectWriter writer = objectMapper.writerFor(Empleado.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n");
+        try (SequenceWriter escritor = writer.writeValues(salida)) {
+            escritor.writeAll(lista);
+        }
+        return salida.toByteArray();
+    }
+
+    @Benchmark
+    public List<Empleado> deserializarSecuencia() throws IOException {
+        try (MappingIterator<Empleado> iterador = objectMapper.readerFor(Empleado.class).readValues(secuencia)) {
+            return iterador.readAll();
+        }
+    }
+
+}
@@ -0,0 +1,94 @@
+package com.andygomez.apirest.main.benchmark;
+
+import com.andygomez.apirest.main.dto.PaginaEmpleados;
+import com.andygomez.apirest.main.model.Empleado;
+import com.andygomez.apirest.main.service.EmpleadoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmpleadoServiceBenchmark {
+
+    @Param({"1000", "100000"})
+    private int empleados;
+
+    private final AtomicLong secuenciaEmail = new AtomicLong();
+
+    private ConfigurableApplicationContext contexto;
+    private EmpleadoService empleadoService;
+
+    @Setup(Level.Trial)
+    public void arrancar() {
+        contexto = ContextoBenchmark.arrancar(WebApplicationType.NONE, "benchmark-servicio-" + empleados);
+        ContextoBenchmark.poblar(contexto, empleados);
+        empleadoService = contexto.getBean(EmpleadoService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void detener() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Optional<Empleado> getEmpleadoById() {
+        return empleadoService.getEmpleadoById(idAleatorio());
+    }
+
+    @Benchmark
+    public PaginaEmpleados<Empleado> getEmpleadosPaginados() {
+        //sin If-None-Match: siempre se lee la pagina
+        return empleadoService.getEmpleadosPaginados(idAleatorio(), 100, version -> false);
+    }
+
+    @Benchmark
+    public Empleado saveEmpleado() {
+        return empleadoService.saveEmpleado(Empleado.builder()
+                .nombre("Andy")
+                .apellido("Gomez")
+                .email("benchmark" + secuenciaEmail.incrementAndGet() + "@empresa.com")
+                .build());
+    }
+
+    @Benchmark
+    public Optional<Empleado> updateEmpleado() {
+        long id = idAleatorio();
+        return empleadoService.updateEmpleado(id, Empleado.builder()
+                .nombre("Nombre" + id)
+                .apellido("Apellido" + id)
+                .email("e" + id + "@empresa.com")
+                .build(), null);
+    }
+
+    @Benchmark
+    public Optional<Empleado> patchEmpleado() {
+        return empleadoService.patchEmpleado(idAleatorio(), Empleado.builder().nombre("Andy").build(), null);
+    }
+
+    private long idAleatorio() {
+        return ThreadLocalRandom.current().nextLong(1, empleados + 1);
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.andygomez.apirest.main.benchmark;
+
+import com.andygomez.apirest.main.model.Empleado;
+import com.andygomez.apirest.main.search.IndiceBusquedaEmpleados;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencia de busqueda por prefijo con el indice lleno. El modo SampleTime reporta
+ * percentiles (p0.99) en el JSON de resultados.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class IndiceBusquedaBenchmark {
+
+    private static final String[] NOMBRES = {"Andy", "Raul", "Rodolfo", "Patricio", "Olivia", "Christian", "Uriel", "Pedro"};
+    private static final String[] APELLIDOS = {"Gomez", "Lopez", "Perez", "Robles", "Cantu", "Ramirez", "Epifanio", "Roblez"};
+
+    @Param({"1000000"})
+    private int empleados;
+
+    private IndiceBusquedaEmpleados indice;
+
+    @Setup
+    public void preparar() {
+        indice = new IndiceBusquedaEmpleados();
+        for (long i = 1; i <= empleados; i++) {
+            indice.indexar(Empleado.builder()
+                    .id(i)
+                    .nombre(NOMBRES[(int) (i % NOMBRES.length)])
+                    .apellido(APELLIDOS[(int) ((i / NOMBRES.length) % APELLIDOS.length)])
+                    .email("e" + i + "@empresa.com")
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public List<Empleado> buscarNombreFrecuente() {
+        return indice.buscar("rob", 20);
+    }
+
+    @Benchmark
+    public List<Empleado> buscarEmail() {
+        return indice.buscar("e" + ThreadLocalRandom.current().nextInt(1, empleados), 20);
+    }
+
+}
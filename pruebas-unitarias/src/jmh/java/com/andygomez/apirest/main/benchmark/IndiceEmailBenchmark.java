@@ -0,0 +1,96 @@
+package com.andygomez.apirest.main.benchmark;
+
+import com.andygomez.apirest.main.search.IndiceEmail;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IndiceEmail frente a un HashMap&lt;String, Long&gt; con los mismos emails. Al preparar imprime
+ * cuanto heap retiene cada estructura (medido tras un GC) y cuanta memoria fuera del heap usa el
+ * indice; las mediciones dan la latencia de busqueda.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class IndiceEmailBenchmark {
+
+    @Param({"1000000"})
+    private int empleados;
+
+    private IndiceEmail indice;
+    private Map<String, Long> mapa;
+    private String[] emails;
+
+    @Setup
+    public void preparar() {
+        emails = new String[empleados];
+        for (int i = 0; i < empleados; i++) {
+            emails[i] = "empleado" + (i + 1) + "@empresa.com";
+        }
+
+        long antes = heapUsado();
+        indice = new IndiceEmail(1024);
+        for (int i = 0; i < empleados; i++) {
+            indice.indexar(i + 1, emails[i]);
+        }
+        long heapIndice = heapUsado() - antes;
+
+        antes = heapUsado();
+        mapa = new HashMap<>();
+        for (int i = 0; i < empleados; i++) {
+            //copia del String: en la aplicacion el mapa retendria sus propias claves, no las del array
+            mapa.put(new String(emails[i]), (long) (i + 1));
+        }
+        long heapMapa = heapUsado() - antes;
+
+        System.out.printf("%nIndiceEmail: %,d bytes de heap, %,d bytes fuera del heap%n", heapIndice, indice.bytesFueraDelHeap());
+        System.out.printf("HashMap<String, Long>: %,d bytes de heap%n", heapMapa);
+    }
+
+    @Benchmark
+    public OptionalLong buscarIndice() {
+        return indice.buscar(emails[ThreadLocalRandom.current().nextInt(empleados)]);
+    }
+
+    @Benchmark
+    public Long buscarHashMap() {
+        return mapa.get(emails[ThreadLocalRandom.current().nextInt(empleados)]);
+    }
+
+    @Benchmark
+    public OptionalLong fallarIndice() {
+        return indice.buscar("nadie" + ThreadLocalRandom.current().nextInt(empleados) + "@empresa.com");
+    }
+
+    @Benchmark
+    public Long fallarHashMap() {
+        return mapa.get("nadie" + ThreadLocalRandom.current().nextInt(empleados) + "@empresa.com");
+    }
+
+    private static long heapUsado() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+}
@@ -1,9 +1,12 @@
 package com.andygomez.apirest.main;
 
+import com.andygomez.apirest.main.config.EmpleadoRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(EmpleadoRuntimeHints.class)
 public class PruebasUnitariasApplication {
 
 	public static void main(String[] args) {
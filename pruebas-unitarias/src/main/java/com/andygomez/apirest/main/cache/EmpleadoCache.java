@@ -0,0 +1,89 @@
+package com.andygomez.apirest.main.cache;
+
+import com.andygomez.apirest.main.event.EmpleadoCambiadoEvent;
+import com.andygomez.apirest.main.model.Empleado;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Cache en memoria de lectura directa para empleados por id. Tambien guarda durante
+ * un tiempo corto los ids inexistentes para que los 404 repetidos no lleguen a la base de datos.
+ */
+@Component
+public class EmpleadoCache {
+
+    private final boolean habilitado;
+    private final Cache<Long, Optional<Empleado>> cache;
+
+    @Autowired
+    public EmpleadoCache(@Value("${empleados.cache.habilitado:true}") boolean habilitado,
+                         @Value("${empleados.cache.tamano-maximo:10000}") long tamanoMaximo,
+                         @Value("${empleados.cache.ttl:5m}") Duration ttl,
+                         @Value("${empleados.cache.ttl-negativo:5s}") Duration ttlNegativo) {
+        this.habilitado = habilitado;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfter(new Expiry<Long, Optional<Empleado>>() {
+                    @Override
+                    public long expireAfterCreate(Long id, Optional<Empleado> empleado, long ahora) {
+                        return empleado.isPresent() ? ttl.toNanos() : ttlNegativo.toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(Long id, Optional<Empleado> empleado, long ahora, long duracionActual) {
+                        return expireAfterCreate(id, empleado, ahora);
+                    }
+
+                    @Override
+                    public long expireAfterRead(Long id, Optional<Empleado> empleado, long ahora, long duracionActual) {
+                        return duracionActual;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    public static EmpleadoCache deshabilitada(){
+        return new EmpleadoCache(false, 0, Duration.ZERO, Duration.ZERO);
+    }
+
+    public Optional<Empleado> obtener(Long id, Function<Long, Optional<Empleado>> cargador){
+        if(!habilitado){
+            return cargador.apply(id);
+        }
+        //se devuelve una copia para que nadie modifique la instancia compartida
+        return cache.get(id, cargador).map(empleado -> empleado.toBuilder().build());
+    }
+
+    public void invalidar(Long id){
+        cache.invalidate(id);
+    }
+
+    public void invalidarTodo(){
+        cache.invalidateAll();
+    }
+
+    public boolean isHabilitado(){
+        return habilitado;
+    }
+
+    public CacheStats estadisticas(){
+        return cache.stats();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarEmpleado(EmpleadoCambiadoEvent evento){
+        invalidar(evento.getId());
+    }
+
+}
@@ -0,0 +1,26 @@
+package com.andygomez.apirest.main.config;
+
+import com.andygomez.apirest.main.metrics.ContadorSentencias;
+import com.andygomez.apirest.main.replica.VentanaLecturaEscritura;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.TaskDecorator;
+
+@Configuration
+@Profile("!reactivo")
+public class AsincronoConfig {
+
+    //Boot aplica el TaskDecorator al applicationTaskExecutor, que es el que usa MVC para los
+    //StreamingResponseBody: el streaming cuenta sus sentencias en su peticion y lee de donde leeria ella
+    @Bean
+    public TaskDecorator contextoPeticionTaskDecorator(ObjectProvider<VentanaLecturaEscritura> ventanaLecturaEscritura){
+        return tarea -> {
+            Runnable conContador = ContadorSentencias.propagar(tarea);
+            VentanaLecturaEscritura ventana = ventanaLecturaEscritura.getIfAvailable();
+            return ventana != null ? ventana.propagar(conContador) : conContador;
+        };
+    }
+
+}
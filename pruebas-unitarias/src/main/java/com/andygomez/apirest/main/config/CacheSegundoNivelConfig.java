@@ -0,0 +1,34 @@
+package com.andygomez.apirest.main.config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.UUID;
+
+/**
+ * CacheManager propio para la cache de segundo nivel. El que Hibernate pide por defecto es el del
+ * proveedor JCache, uno por JVM: dos contextos en la misma JVM (los tests) compartirian la region
+ * empleados aunque cada uno tenga su base de datos. Con una URI que no es un fichero ni un recurso
+ * Caffeine sigue leyendo las regiones de application.conf; Hibernate lo cierra al cerrar la factoria.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.jpa.properties.hibernate.cache.use_second_level_cache", havingValue = "true")
+public class CacheSegundoNivelConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer cacheManagerSegundoNivel(){
+        return propiedades -> {
+            CachingProvider proveedor = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+            propiedades.put(ConfigSettings.CACHE_MANAGER, proveedor.getCacheManager(
+                    URI.create("empleados-" + UUID.randomUUID()), proveedor.getDefaultClassLoader()));
+        };
+    }
+
+}
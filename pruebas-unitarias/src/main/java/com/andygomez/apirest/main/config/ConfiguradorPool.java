@@ -0,0 +1,72 @@
+package com.andygomez.apirest.main.config;
+
+import com.andygomez.apirest.main.metrics.MetricasPoolPorOperacion;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+
+/**
+ * Aplica PropiedadesPool a los HikariDataSource despues del enlace de spring.datasource.hikari
+ * y antes de que arranque el pool; los campos sin fijar no tocan lo enlazado. Va primero para
+ * ver el HikariDataSource sin envolver.
+ */
+public class ConfiguradorPool implements BeanPostProcessor, Ordered {
+
+    private final ObjectProvider<PropiedadesPool> propiedades;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public ConfiguradorPool(ObjectProvider<PropiedadesPool> propiedades, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.propiedades = propiedades;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource hikari) {
+            aplicar(hikari, propiedades.getObject(), meterRegistry.getIfAvailable());
+        }
+        return bean;
+    }
+
+    public static void aplicar(HikariDataSource hikari, PropiedadesPool propiedades, MeterRegistry meterRegistry) {
+        //solo lo fijado en empleados.pool pisa lo enlazado desde spring.datasource.hikari
+        if (propiedades.maximoConexiones() != null) {
+            hikari.setMaximumPoolSize(propiedades.maximoConexiones());
+        }
+        if (propiedades.minimoInactivas() != null) {
+            hikari.setMinimumIdle(propiedades.minimoInactivas());
+        }
+        if (propiedades.timeoutConexion() != null) {
+            hikari.setConnectionTimeout(propiedades.timeoutConexion().toMillis());
+        }
+        if (propiedades.timeoutInactiva() != null) {
+            hikari.setIdleTimeout(propiedades.timeoutInactiva().toMillis());
+        }
+        if (propiedades.vidaMaxima() != null) {
+            hikari.setMaxLifetime(propiedades.vidaMaxima().toMillis());
+        }
+        if (propiedades.umbralFuga() != null) {
+            hikari.setLeakDetectionThreshold(propiedades.umbralFuga().toMillis());
+        }
+
+        PropiedadesPool.CacheSentencias cache = propiedades.cacheSentencias();
+        if (hikari.getJdbcUrl() != null && hikari.getJdbcUrl().startsWith("jdbc:h2:")) {
+            hikari.addDataSourceProperty("QUERY_CACHE_SIZE", String.valueOf(cache.habilitado() ? cache.tamano() : 0));
+        }
+        if (cache.habilitado() && cache.propiedades() != null) {
+            cache.propiedades().forEach(hikari::addDataSourceProperty);
+        }
+
+        if (meterRegistry != null && hikari.getMetricsTrackerFactory() == null && hikari.getMetricRegistry() == null) {
+            hikari.setMetricsTrackerFactory(new MetricasPoolPorOperacion(meterRegistry));
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.andygomez.apirest.main.config;
+
+import com.andygomez.apirest.main.dto.EstadoEscritura;
+import com.andygomez.apirest.main.dto.OperacionEmpleado;
+import com.andygomez.apirest.main.dto.ResultadoOperacion;
+import com.andygomez.apirest.main.metrics.ContadorSentencias;
+import com.andygomez.apirest.main.model.CambioEmpleado;
+import com.andygomez.apirest.main.model.Empleado;
+import com.andygomez.apirest.main.repository.EmpleadoRepository;
+import com.andygomez.apirest.main.repository.EmpleadoRepositoryCustomImpl;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.data.projection.TargetAware;
+import org.springframework.data.repository.Repository;
+import org.springframework.transaction.interceptor.TransactionalProxy;
+
+import java.util.List;
+
+/**
+ * Lo que la imagen nativa o el arranque con AOT no pueden deducir solos: las clases que Jackson e
+ * Hibernate crean por reflexion, el inspector de sentencias que Hibernate instancia por nombre y los
+ * proxies JDK del repositorio y de su proyeccion.
+ */
+public class EmpleadoRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final MemberCategory[] REFLEXION_COMPLETA = {
+            MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+            MemberCategory.INVOKE_DECLARED_METHODS,
+            MemberCategory.DECLARED_FIELDS
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<?> tipo : List.of(Empleado.class, CambioEmpleado.class,
+                OperacionEmpleado.class, ResultadoOperacion.class, EstadoEscritura.class)) {
+            hints.reflection().registerType(tipo, REFLEXION_COMPLETA);
+        }
+        hints.reflection().registerType(EmpleadoRepositoryCustomImpl.class, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+        hints.reflection().registerType(ContadorSentencias.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.reflection().registerType(EmpleadoRepository.ResumenPagina.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+
+        hints.proxies().registerJdkProxy(AopProxyUtils.completeJdkProxyInterfaces(
+                EmpleadoRepository.class, Repository.class, TransactionalProxy.class));
+        hints.proxies().registerJdkProxy(AopProxyUtils.completeJdkProxyInterfaces(
+                EmpleadoRepository.ResumenPagina.class, TargetAware.class));
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.andygomez.apirest.main.config;
+
+import com.andygomez.apirest.main.metrics.EmpleadoMetricas;
+import com.andygomez.apirest.main.ratelimit.LimitadorConcurrencia;
+import com.andygomez.apirest.main.ratelimit.LimiteFiltro;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+
+@Configuration
+@Profile("!reactivo")
+@ConditionalOnProperty(name = "empleados.limite.habilitado", havingValue = "true")
+@EnableConfigurationProperties(PropiedadesLimite.class)
+public class LimiteConfig {
+
+    @Bean
+    public LimitadorConcurrencia limitadorConcurrencia(PropiedadesLimite propiedades, ObjectProvider<MeterRegistry> meterRegistry){
+        PropiedadesLimite.Concurrencia concurrencia = propiedades.concurrencia();
+        LimitadorConcurrencia limitador = new LimitadorConcurrencia(concurrencia.limiteInicial(),
+                concurrencia.limiteMinimo(), concurrencia.limiteMaximo(), concurrencia.latenciaObjetivo());
+        meterRegistry.ifAvailable(registry -> {
+            Gauge.builder("empleados.concurrencia.limite", limitador, LimitadorConcurrencia::limite)
+                    .description("Peticiones en vuelo permitidas por el limite adaptativo")
+                    .register(registry);
+            Gauge.builder("empleados.concurrencia.en.vuelo", limitador, LimitadorConcurrencia::enVuelo)
+                    .register(registry);
+        });
+        return limitador;
+    }
+
+    @Bean
+    public FilterRegistrationBean<LimiteFiltro> limiteFiltro(PropiedadesLimite propiedades, LimitadorConcurrencia limitadorConcurrencia,
+                                                             EmpleadoMetricas empleadoMetricas){
+        LimiteFiltro filtro = new LimiteFiltro(propiedades,
+                propiedades.concurrencia().habilitada() ? limitadorConcurrencia : null, empleadoMetricas);
+        FilterRegistrationBean<LimiteFiltro> registro = new FilterRegistrationBean<>(filtro);
+        registro.addUrlPatterns("/api/empleados", "/api/empleados/*");
+        //antes que el resto para no gastar trabajo en peticiones que se van a rechazar
+        registro.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registro;
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.andygomez.apirest.main.config;
+
+import com.andygomez.apirest.main.metrics.EmpleadoMetricas;
+import com.andygomez.apirest.main.metrics.MetricasInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@Profile("!reactivo")
+public class MetricasWebConfig implements WebMvcConfigurer {
+
+    private final ObjectProvider<EmpleadoMetricas> empleadoMetricas;
+
+    public MetricasWebConfig(ObjectProvider<EmpleadoMetricas> empleadoMetricas) {
+        this.empleadoMetricas = empleadoMetricas;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        empleadoMetricas.ifAvailable(metricas -> registry
+                .addInterceptor(new MetricasInterceptor(metricas))
+                .addPathPatterns("/api/empleados/**", "/api/empleados"));
+    }
+
+}
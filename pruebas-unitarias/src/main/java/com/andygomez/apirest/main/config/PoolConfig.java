@@ -0,0 +1,19 @@
+package com.andygomez.apirest.main.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(PropiedadesPool.class)
+public class PoolConfig {
+
+    @Bean
+    public static ConfiguradorPool configuradorPool(ObjectProvider<PropiedadesPool> propiedades,
+                                                    ObjectProvider<MeterRegistry> meterRegistry){
+        return new ConfiguradorPool(propiedades, meterRegistry);
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.andygomez.apirest.main.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Limite de peticiones por cliente y de concurrencia delante de /api/empleados, bajo empleados.limite.
+ */
+@ConfigurationProperties("empleados.limite")
+public record PropiedadesLimite(
+        //si no viene la cabecera se usa la IP remota
+        String cabeceraCliente,
+        @DefaultValue("100") int capacidad,
+        @DefaultValue("50") double recargaPorSegundo,
+        @DefaultValue("100000") long clientesMaximos,
+        @DefaultValue Pesos pesos,
+        @DefaultValue Concurrencia concurrencia) {
+
+    /**
+     * Tokens que cuesta cada tipo de peticion. El listado completo y el bulk son los que cargan la base de datos.
+     */
+    public record Pesos(
+            @DefaultValue("20") int listado,
+            @DefaultValue("1") int consulta,
+            @DefaultValue("2") int escritura,
+            @DefaultValue("20") int bulk) {
+    }
+
+    public record Concurrencia(
+            @DefaultValue("true") boolean habilitada,
+            @DefaultValue("100") int limiteInicial,
+            @DefaultValue("10") int limiteMinimo,
+            @DefaultValue("1000") int limiteMaximo,
+            @DefaultValue("250ms") Duration latenciaObjetivo) {
+    }
+
+}
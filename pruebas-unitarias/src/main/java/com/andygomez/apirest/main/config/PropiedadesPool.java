@@ -0,0 +1,35 @@
+package com.andygomez.apirest.main.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Pool de conexiones y cache de sentencias, bajo empleados.pool. Se aplican a cada
+ * HikariDataSource del contexto y a los pools de replicas. Los campos del pool que no se
+ * fijan quedan en null y se respeta lo enlazado desde spring.datasource.hikari.
+ */
+@ConfigurationProperties("empleados.pool")
+public record PropiedadesPool(
+        Integer maximoConexiones,
+        Integer minimoInactivas,
+        Duration timeoutConexion,
+        Duration timeoutInactiva,
+        Duration vidaMaxima,
+        //0 desactiva la deteccion de fugas
+        Duration umbralFuga,
+        @DefaultValue CacheSentencias cacheSentencias) {
+
+    /**
+     * En H2 se traduce a QUERY_CACHE_SIZE; para otros drivers se pasan tal cual las
+     * propiedades (p. ej. cachePrepStmts y prepStmtCacheSize en MySQL).
+     */
+    public record CacheSentencias(
+            @DefaultValue("true") boolean habilitado,
+            @DefaultValue("64") int tamano,
+            Map<String, String> propiedades) {
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.andygomez.apirest.main.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+@Configuration
+@Profile("reactivo")
+public class ReactivoConfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public DatabaseClient databaseClient(ConnectionFactory connectionFactory){
+        return DatabaseClient.create(connectionFactory);
+    }
+
+    //con un ConnectionFactory de R2DBC Boot omite DataSourceAutoConfiguration y con ella JPA;
+    //el DataSource JDBC se declara aqui para que el esquema, la cache y los indices sigan en pie
+    @Bean(destroyMethod = "close")
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties){
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.andygomez.apirest.main.config;
+
+import com.andygomez.apirest.main.replica.DataSourceEnrutado;
+import com.andygomez.apirest.main.replica.VentanaLecturaEscritura;
+import com.andygomez.apirest.main.replica.VentanaLecturaEscrituraFiltro;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@ConditionalOnProperty(name = "empleados.replicas.habilitado", havingValue = "true")
+public class ReplicasConfig {
+
+    @Bean
+    public VentanaLecturaEscritura ventanaLecturaEscritura(@Value("${empleados.replicas.ventana-lectura-escritura:2s}") Duration ventana){
+        return new VentanaLecturaEscritura(ventana);
+    }
+
+    @Bean
+    public FilterRegistrationBean<VentanaLecturaEscrituraFiltro> ventanaLecturaEscrituraFiltro(VentanaLecturaEscritura ventanaLecturaEscritura){
+        FilterRegistrationBean<VentanaLecturaEscrituraFiltro> registro =
+                new FilterRegistrationBean<>(new VentanaLecturaEscrituraFiltro(ventanaLecturaEscritura));
+        registro.addUrlPatterns("/api/empleados", "/api/empleados/*");
+        return registro;
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSourcePrimaria(DataSourceProperties properties){
+        HikariDataSource primaria = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primaria.setPoolName(DataSourceEnrutado.PRIMARIA);
+        return primaria;
+    }
+
+    @Bean(destroyMethod = "close")
+    public DataSourceEnrutado dataSourceEnrutado(HikariDataSource dataSourcePrimaria,
+                                                 DataSourceProperties properties,
+                                                 VentanaLecturaEscritura ventanaLecturaEscritura,
+                                                 PropiedadesPool propiedadesPool,
+                                                 ObjectProvider<MeterRegistry> meterRegistry,
+                                                 Environment environment){
+        //se enlaza con Binder para admitir urls[0]=... cuando la url lleva comas (p. ej. INIT de H2)
+        List<String> urls = Binder.get(environment)
+                .bind("empleados.replicas.urls", Bindable.listOf(String.class))
+                .orElse(List.of());
+
+        Map<Object, Object> destinos = new HashMap<>();
+        destinos.put(DataSourceEnrutado.PRIMARIA, dataSourcePrimaria);
+        List<String> replicas = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            String nombre = "replica-" + i;
+            HikariDataSource replica = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(urls.get(i))
+                    .build();
+            replica.setPoolName(nombre);
+            replica.setReadOnly(true);
+            //las replicas no pasan por el enlace de spring.datasource.hikari, parten del pool de la primaria
+            replica.setMaximumPoolSize(dataSourcePrimaria.getMaximumPoolSize());
+            replica.setMinimumIdle(dataSourcePrimaria.getMinimumIdle());
+            replica.setConnectionTimeout(dataSourcePrimaria.getConnectionTimeout());
+            replica.setIdleTimeout(dataSourcePrimaria.getIdleTimeout());
+            replica.setMaxLifetime(dataSourcePrimaria.getMaxLifetime());
+            replica.setLeakDetectionThreshold(dataSourcePrimaria.getLeakDetectionThreshold());
+            ConfiguradorPool.aplicar(replica, propiedadesPool, meterRegistry.getIfAvailable());
+            destinos.put(nombre, replica);
+            replicas.add(nombre);
+        }
+
+        DataSourceEnrutado enrutado = new DataSourceEnrutado(replicas, ventanaLecturaEscritura);
+        enrutado.setTargetDataSources(destinos);
+        enrutado.setDefaultTargetDataSource(dataSourcePrimaria);
+        return enrutado;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceEnrutado dataSourceEnrutado){
+        return new LazyConnectionDataSourceProxy(dataSourceEnrutado);
+    }
+
+}
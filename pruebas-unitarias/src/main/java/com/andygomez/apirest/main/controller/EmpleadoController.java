@@ -1,57 +1,440 @@
 package com.andygomez.apirest.main.controller;
 
+import com.andygomez.apirest.main.dto.EstadoEscritura;
+import com.andygomez.apirest.main.dto.OperacionEmpleado;
+import com.andygomez.apirest.main.dto.PaginaEmpleados;
+import com.andygomez.apirest.main.dto.ResultadoOperacion;
+import com.andygomez.apirest.main.dto.ResumenImportacion;
+import com.andygomez.apirest.main.exception.VersionConflictoException;
+import com.andygomez.apirest.main.idempotency.AlmacenIdempotencia;
+import com.andygomez.apirest.main.model.CambioEmpleado;
 import com.andygomez.apirest.main.model.Empleado;
+import com.andygomez.apirest.main.repository.EmpleadoRepositoryCustom;
 import com.andygomez.apirest.main.service.EmpleadoService;
+import com.andygomez.apirest.main.service.ValidacionEmpleado;
+import com.andygomez.apirest.main.writebehind.ColaEscrituraEmpleados;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
+@Profile("!reactivo")
 @RequestMapping("/api/empleados")
 public class EmpleadoController {
 
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    //RFC 8742: items CBOR concatenados, el equivalente binario de NDJSON
+    public static final String APPLICATION_CBOR_SEQ_VALUE = "application/cbor-seq";
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private static final CsvMapper CSV_MAPPER = CsvMapper.builder()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .enable(CsvParser.Feature.TRIM_SPACES)
+            .enable(CsvParser.Feature.SKIP_EMPTY_LINES)
+            .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+            .build();
+    //la importacion toma las columnas de la cabecera, en cualquier orden
+    private static final CsvSchema ESQUEMA_CSV_IMPORTACION = CsvSchema.emptySchema().withHeader();
+    private static final CsvSchema ESQUEMA_CSV_EXPORTACION = CsvSchema.builder()
+            .addColumn("id")
+            .addColumn("nombre")
+            .addColumn("apellido")
+            .addColumn("email")
+            .addColumn("version")
+            .setUseHeader(true)
+            .build();
+
+    private static final int LIMITE_MAXIMO = 1000;
+    private static final int LIMITE_MAXIMO_BUSQUEDA = 100;
+    private static final long ESPERA_MAXIMA_CAMBIOS_SEGUNDOS = 30;
+
     @Autowired
     private EmpleadoService empleadoService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ObjectMapper cborMapper;
+
+    //solo existe con empleados.escritura-diferida.habilitada=true
+    @Autowired(required = false)
+    private ColaEscrituraEmpleados colaEscritura;
+
+    @Autowired(required = false)
+    private AlmacenIdempotencia almacenIdempotencia;
+
+    @PostConstruct
+    void iniciarCbor(){
+        //misma configuracion que el mapper JSON de Spring Boot, solo cambia el formato
+        cborMapper = objectMapper.copyWith(new CBORFactory());
+    }
+
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public Empleado guardarEmpleado(@RequestBody Empleado empleado){
-        return empleadoService.saveEmpleado(empleado);
+    public ResponseEntity<?> guardarEmpleado(@RequestHeader(name = AlmacenIdempotencia.CABECERA, required = false) String claveIdempotencia,
+                                             @RequestBody Empleado empleado) throws JsonProcessingException {
+        if(claveIdempotencia == null || almacenIdempotencia == null){
+            return guardar(empleado);
+        }
+        return almacenIdempotencia.ejecutar(claveIdempotencia, objectMapper.writeValueAsString(empleado),
+                () -> guardar(empleado));
+    }
+
+    private ResponseEntity<?> guardar(Empleado empleado){
+        if(colaEscritura == null){
+            return new ResponseEntity<>(empleadoService.saveEmpleado(empleado), HttpStatus.CREATED);
+        }
+        if(!ValidacionEmpleado.esCompleto(empleado)){
+            return ResponseEntity.badRequest().build();
+        }
+        return colaEscritura.encolar(empleado)
+                .<ResponseEntity<?>>map(estado -> ResponseEntity.accepted()
+                        .location(URI.create("/api/empleados/writes/" + estado.getSeguimiento()))
+                        .body(estado))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .build());
+    }
+
+    @GetMapping("/writes/{seguimiento}")
+    public ResponseEntity<EstadoEscritura> obtenerEstadoEscritura(@PathVariable("seguimiento") UUID seguimiento){
+        if(colaEscritura == null){
+            return ResponseEntity.notFound().build();
+        }
+        return colaEscritura.estado(seguimiento)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PostMapping(value = "/_bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public List<ResultadoOperacion> procesarLote(@RequestBody List<OperacionEmpleado> operaciones){
+        List<ResultadoOperacion> resultados = new ArrayList<>(operaciones.size());
+        empleadoService.procesarLote(operaciones.iterator(), resultados::add);
+        return resultados;
+    }
+
+    @PostMapping(value = "/_bulk", consumes = APPLICATION_NDJSON_VALUE)
+    public List<ResultadoOperacion> procesarLoteNdjson(InputStream cuerpo) throws IOException {
+        return procesarLoteSecuencia(objectMapper, cuerpo);
+    }
+
+    @PostMapping(value = "/_bulk", consumes = APPLICATION_CBOR_SEQ_VALUE)
+    public List<ResultadoOperacion> procesarLoteCbor(InputStream cuerpo) throws IOException {
+        return procesarLoteSecuencia(cborMapper, cuerpo);
+    }
+
+    private List<ResultadoOperacion> procesarLoteSecuencia(ObjectMapper mapper, InputStream cuerpo) throws IOException {
+        List<ResultadoOperacion> resultados = new ArrayList<>();
+        try (MappingIterator<OperacionEmpleado> operaciones = mapper.readerFor(OperacionEmpleado.class).readValues(cuerpo)) {
+            empleadoService.procesarLote(operaciones, resultados::add);
+        }
+        return resultados;
+    }
+
+    @PostMapping(value = "/import", consumes = TEXT_CSV_VALUE)
+    public ResponseEntity<ResumenImportacion> importarCsv(InputStream cuerpo) throws IOException {
+        try (MappingIterator<Empleado> empleados = CSV_MAPPER.readerFor(Empleado.class)
+                .with(ESQUEMA_CSV_IMPORTACION)
+                .readValues(cuerpo)) {
+            return resumenImportacion(empleadoService.importarEmpleados(empleados));
+        }
+    }
+
+    @PostMapping(value = "/import", consumes = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ResumenImportacion> importarNdjson(InputStream cuerpo) throws IOException {
+        try (MappingIterator<Empleado> empleados = objectMapper.readerFor(Empleado.class).readValues(cuerpo)) {
+            return resumenImportacion(empleadoService.importarEmpleados(empleados));
+        }
+    }
+
+    @GetMapping(value = "/export", produces = TEXT_CSV_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportarCsv(){
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, TEXT_CSV_VALUE)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"empleados.csv\"")
+                .body(escribirEmpleados(CSV_MAPPER.writerFor(Empleado.class).with(ESQUEMA_CSV_EXPORTACION), false));
+    }
+
+    @GetMapping(value = "/export", produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportarNdjson(){
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, APPLICATION_NDJSON_VALUE)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"empleados.ndjson\"")
+                .body(escribirEmpleados(objectMapper.writerFor(Empleado.class).withRootValueSeparator("\n"), false));
     }
 
     @GetMapping
-    public List<Empleado> listarEmpleados(){
-        return empleadoService.getAllEmpleado();
+    public ResponseEntity<List<Empleado>> listarEmpleados(@RequestParam(name = "after", defaultValue = "0") long despuesDeId,
+                                                          @RequestParam(name = "limit", defaultValue = "100") int limite,
+                                                          WebRequest request){
+        int limiteEfectivo = Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+        PaginaEmpleados<Empleado> pagina = empleadoService.getEmpleadosPaginados(despuesDeId, limiteEfectivo,
+                version -> request.checkNotModified(etagPagina(version)));
+        if(pagina.isNoModificada()){
+            return null;
+        }
+        List<Empleado> empleados = pagina.getEmpleados();
+
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok().eTag(etagPagina(pagina.getVersion()));
+        if(empleados.size() == limiteEfectivo){
+            long ultimoId = empleados.get(empleados.size() - 1).getId();
+            respuesta.header(HttpHeaders.LINK,
+                    "</api/empleados?after=" + ultimoId + "&limit=" + limiteEfectivo + ">; rel=\"next\"");
+        }
+        return respuesta.body(empleados);
+    }
+
+    @GetMapping(params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> listarEmpleadosParciales(@RequestParam(name = "after", defaultValue = "0") long despuesDeId,
+                                                                              @RequestParam(name = "limit", defaultValue = "100") int limite,
+                                                                              @RequestParam("fields") String fields,
+                                                                              WebRequest request){
+        Set<String> campos = campos(fields);
+        if(campos == null){
+            return ResponseEntity.badRequest().build();
+        }
+        int limiteEfectivo = Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+        PaginaEmpleados<Map<String, Object>> pagina = empleadoService.proyectarEmpleados(despuesDeId, limiteEfectivo, campos,
+                version -> request.checkNotModified(etagPagina(version)));
+        if(pagina.isNoModificada()){
+            return null;
+        }
+        List<Map<String, Object>> empleados = pagina.getEmpleados();
+
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok().eTag(etagPagina(pagina.getVersion()));
+        if(empleados.size() == limiteEfectivo){
+            Object ultimoId = empleados.get(empleados.size() - 1).get("id");
+            respuesta.header(HttpHeaders.LINK, "</api/empleados?after=" + ultimoId + "&limit=" + limiteEfectivo
+                    + "&fields=" + String.join(",", campos) + ">; rel=\"next\"");
+        }
+        return respuesta.body(empleados);
+    }
+
+    //la tabla completa como array JSON, escrita desde el cursor sin materializar la lista
+    @GetMapping(params = "all=true", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamEmpleadosJson(){
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(escribirEmpleados(objectMapper.writerFor(Empleado.class), true));
+    }
+
+    @GetMapping(produces = APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamEmpleados(){
+        ObjectWriter writer = objectMapper.writerFor(Empleado.class);
+        StreamingResponseBody cuerpo = salida -> empleadoService.streamEmpleados(empleado -> {
+            try {
+                salida.write(writer.writeValueAsBytes(empleado));
+                salida.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, APPLICATION_NDJSON_VALUE)
+                .body(cuerpo);
+    }
+
+    @GetMapping(produces = APPLICATION_CBOR_SEQ_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamEmpleadosCbor(){
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, APPLICATION_CBOR_SEQ_VALUE)
+                .body(escribirEmpleados(cborMapper.writerFor(Empleado.class), false));
+    }
+
+    @GetMapping("/changes")
+    public DeferredResult<ResponseEntity<StreamingResponseBody>> streamCambios(@RequestParam(name = "since", defaultValue = "0") long desde,
+                                                                               @RequestParam(name = "limit", defaultValue = "1000") int limite,
+                                                                               @RequestParam(name = "wait", defaultValue = "0") long esperaSegundos){
+        int limiteEfectivo = Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+        Duration espera = Duration.ofSeconds(Math.max(0, Math.min(esperaSegundos, ESPERA_MAXIMA_CAMBIOS_SEGUNDOS)));
+        if(espera.isZero()){
+            DeferredResult<ResponseEntity<StreamingResponseBody>> resultado = new DeferredResult<>();
+            resultado.setResult(cambios(desde, limiteEfectivo));
+            return resultado;
+        }
+        //el long-poll no ocupa un hilo del executor: RegistroCambios completa la espera al confirmarse
+        //un cambio y solo la lectura y escritura de la respuesta pasan por el executor de MVC
+        DeferredResult<ResponseEntity<StreamingResponseBody>> resultado = new DeferredResult<>(espera.toMillis());
+        CompletableFuture<Long> avance = empleadoService.esperarCambios(desde);
+        resultado.onTimeout(() -> resultado.setResult(cambios(desde, limiteEfectivo)));
+        resultado.onCompletion(() -> avance.cancel(false));
+        avance.thenRun(() -> resultado.setResult(cambios(desde, limiteEfectivo)));
+        return resultado;
+    }
+
+    private ResponseEntity<StreamingResponseBody> cambios(long desde, int limite){
+        ObjectWriter writer = objectMapper.writerFor(CambioEmpleado.class);
+        StreamingResponseBody cuerpo = salida -> {
+            for (CambioEmpleado cambio : empleadoService.getCambios(desde, limite)) {
+                salida.write(writer.writeValueAsBytes(cambio));
+                salida.write('\n');
+            }
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, APPLICATION_NDJSON_VALUE)
+                .body(cuerpo);
+    }
+
+    @GetMapping("/search")
+    public List<Empleado> buscarEmpleados(@RequestParam("q") String consulta,
+                                          @RequestParam(name = "limit", defaultValue = "20") int limite){
+        return empleadoService.buscarEmpleados(consulta, Math.max(1, Math.min(limite, LIMITE_MAXIMO_BUSQUEDA)));
+    }
+
+    @GetMapping("/by-email/{email}")
+    public ResponseEntity<Empleado> obtenerEmpleadoPorEmail(@PathVariable("email") String email){
+        return empleadoService.getEmpleadoByEmail(email)
+                .map(empleado -> conEtag(ResponseEntity.ok(), empleado).body(empleado))
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Empleado> obtenerEmpleadoId(@PathVariable("id")long empladoId){
         return empleadoService.getEmpleadoById(empladoId)
-                .map(ResponseEntity::ok)
+                .map(empleado -> conEtag(ResponseEntity.ok(), empleado).body(empleado))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
-    @PutMapping("/{id}")
-    public ResponseEntity<Empleado> actualizarEmpleado(@PathVariable("id")long empleadoId, @RequestBody Empleado empleado){
-        return empleadoService.getEmpleadoById(empleadoId)
-                .map(empleadoGuardado -> {
-                    empleadoGuardado.setNombre(empleado.getNombre());
-                    empleadoGuardado.setApellido(empleado.getApellido());
-                    empleadoGuardado.setEmail(empleado.getEmail());
-
-                    Empleado empleadoActualizado = empleadoService.updateEmpleado(empleadoGuardado);
-                    return new ResponseEntity<>(empleadoActualizado,HttpStatus.OK);
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<Map<String, Object>> obtenerEmpleadoParcial(@PathVariable("id")long empladoId, @RequestParam("fields") String fields){
+        Set<String> campos = campos(fields);
+        if(campos == null){
+            return ResponseEntity.badRequest().build();
+        }
+        return empleadoService.proyectarEmpleado(empladoId, campos)
+                .map(empleado -> {
+                    ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+                    if(empleado.get("version") instanceof Long version){
+                        respuesta.eTag(etag(version));
+                    }
+                    return respuesta.body(empleado);
                 })
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    @PutMapping("/{id}")
+    public ResponseEntity<Empleado> actualizarEmpleado(@PathVariable("id")long empleadoId, @RequestBody Empleado empleado,
+                                                       @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        if(!ValidacionEmpleado.esCompleto(empleado)){
+            return ResponseEntity.badRequest().build();
+        }
+        return empleadoService.updateEmpleado(empleadoId, empleado, versionEsperada(empleadoId, ifMatch))
+                .map(empleadoActualizado -> conEtag(ResponseEntity.ok(), empleadoActualizado).body(empleadoActualizado))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<Void> modificarEmpleado(@PathVariable("id")long empleadoId, @RequestBody Empleado cambios,
+                                                  @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        if(!ValidacionEmpleado.tieneCambios(cambios)){
+            return ResponseEntity.badRequest().build();
+        }
+        return empleadoService.patchEmpleado(empleadoId, cambios, versionEsperada(empleadoId, ifMatch))
+                .map(empleadoModificado -> conEtag(ResponseEntity.status(HttpStatus.NO_CONTENT), empleadoModificado).<Void>build())
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<String> eliminarEmpleado(@PathVariable("id")long empleadoId){
         empleadoService.deleteEmpleado(empleadoId);
         return new ResponseEntity<String>("Empleado eliminado con exito",HttpStatus.OK);
     }
 
+    //un solo generador para todo el stream, sin un byte[] intermedio por empleado ni un flush por item;
+    //la salida se envia en trozos del tamano del buffer y la memoria no depende del numero de empleados
+    private StreamingResponseBody escribirEmpleados(ObjectWriter escritor, boolean comoArray){
+        ObjectWriter writer = escritor.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        return salida -> {
+            try (SequenceWriter secuencia = comoArray ? writer.writeValuesAsArray(salida) : writer.writeValues(salida)) {
+                empleadoService.streamEmpleados(empleado -> {
+                    try {
+                        secuencia.write(empleado);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+    }
+
+    private static ResponseEntity<ResumenImportacion> resumenImportacion(ResumenImportacion resumen){
+        return resumen.getAbortada() == null ? ResponseEntity.ok(resumen) : ResponseEntity.badRequest().body(resumen);
+    }
+
+    //debil: se calcula con un agregado de la pagina, sin materializar la lista
+    private static String etagPagina(String version){
+        return "W/\"" + version + "\"";
+    }
+
+    public static String etag(long version){
+        return "\"" + version + "\"";
+    }
+
+    private static ResponseEntity.BodyBuilder conEtag(ResponseEntity.BodyBuilder respuesta, Empleado empleado){
+        return empleado.getVersion() != null ? respuesta.eTag(etag(empleado.getVersion())) : respuesta;
+    }
+
+    //null si pide un campo que no se puede proyectar
+    private static Set<String> campos(String fields){
+        Set<String> campos = new LinkedHashSet<>();
+        for (String campo : fields.split(",")) {
+            String nombre = campo.trim();
+            if(nombre.isEmpty()){
+                continue;
+            }
+            if(!EmpleadoRepositoryCustom.CAMPOS.contains(nombre)){
+                return null;
+            }
+            campos.add(nombre);
+        }
+        return campos;
+    }
+
+    private static Long versionEsperada(long empleadoId, String ifMatch){
+        if(ifMatch == null || ifMatch.trim().equals("*")){
+            return null;
+        }
+        //If-Match usa comparacion fuerte, un ETag debil o mal formado nunca coincide
+        String valor = ifMatch.trim();
+        if(valor.length() < 3 || !valor.startsWith("\"") || !valor.endsWith("\"")){
+            throw new VersionConflictoException(empleadoId);
+        }
+        try {
+            return Long.parseLong(valor.substring(1, valor.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new VersionConflictoException(empleadoId);
+        }
+    }
+
 }
@@ -0,0 +1,76 @@
+package com.andygomez.apirest.main.controller;
+
+import com.andygomez.apirest.main.model.Empleado;
+import com.andygomez.apirest.main.service.EmpleadoReactivoService;
+import com.andygomez.apirest.main.service.ValidacionEmpleado;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@Profile("reactivo")
+@RequestMapping("/api/empleados")
+public class EmpleadoReactivoController {
+
+    private static final int LIMITE_MAXIMO = 1000;
+
+    @Autowired
+    private EmpleadoReactivoService empleadoService;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Empleado> guardarEmpleado(@RequestBody Empleado empleado){
+        return empleadoService.saveEmpleado(empleado);
+    }
+
+    @GetMapping
+    public Flux<Empleado> listarEmpleados(@RequestParam(name = "after", defaultValue = "0") long despuesDeId,
+                                          @RequestParam(name = "limit", defaultValue = "100") int limite){
+        return empleadoService.getEmpleadosPaginados(despuesDeId, Math.max(1, Math.min(limite, LIMITE_MAXIMO)));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Empleado> streamEmpleados(){
+        return empleadoService.getAllEmpleado();
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Empleado>> obtenerEmpleadoId(@PathVariable("id")long empleadoId){
+        return empleadoService.getEmpleadoById(empleadoId)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<Empleado>> actualizarEmpleado(@PathVariable("id")long empleadoId, @RequestBody Empleado empleado){
+        if(!ValidacionEmpleado.esCompleto(empleado)){
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return empleadoService.updateEmpleado(empleadoId, empleado)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PatchMapping("/{id}")
+    public Mono<ResponseEntity<Void>> modificarEmpleado(@PathVariable("id")long empleadoId, @RequestBody Empleado cambios){
+        if(!ValidacionEmpleado.tieneCambios(cambios)){
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return empleadoService.patchEmpleado(empleadoId, cambios)
+                .map(actualizado -> actualizado
+                        ? ResponseEntity.noContent().<Void>build()
+                        : ResponseEntity.notFound().<Void>build());
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<String>> eliminarEmpleado(@PathVariable("id")long empleadoId){
+        return empleadoService.deleteEmpleado(empleadoId)
+                .thenReturn(new ResponseEntity<>("Empleado eliminado con exito",HttpStatus.OK));
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.andygomez.apirest.main.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EstadoEscritura {
+
+    public enum Estado {
+        PENDIENTE,
+        COMPLETADA,
+        FALLIDA
+    }
+
+    private UUID seguimiento;
+    private Estado estado;
+    private Long id;
+    private Integer status;
+    private String error;
+
+    public static EstadoEscritura pendiente(UUID seguimiento){
+        return new EstadoEscritura(seguimiento, Estado.PENDIENTE, null, null, null);
+    }
+
+    public static EstadoEscritura de(UUID seguimiento, ResultadoOperacion resultado){
+        return new EstadoEscritura(seguimiento,
+                resultado.getError() == null ? Estado.COMPLETADA : Estado.FALLIDA,
+                resultado.getId(),
+                resultado.getStatus(),
+                resultado.getError());
+    }
+
+    public static EstadoEscritura fallida(UUID seguimiento, String error){
+        return new EstadoEscritura(seguimiento, Estado.FALLIDA, null, 500, error);
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.andygomez.apirest.main.dto;
+
+import com.andygomez.apirest.main.model.Empleado;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OperacionEmpleado {
+
+    public enum Tipo {
+        @JsonProperty("upsert")
+        UPSERT,
+        @JsonProperty("delete")
+        DELETE
+    }
+
+    private Tipo op;
+    private Long id;
+    private Empleado empleado;
+
+}
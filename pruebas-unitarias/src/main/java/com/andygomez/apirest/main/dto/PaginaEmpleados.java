@@ -0,0 +1,26 @@
+package com.andygomez.apirest.main.dto;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Una pagina del listado junto con su version (la base del ETag), leidas en la misma transaccion
+ * para que el ETag describa exactamente el cuerpo. Si el cliente ya tenia esa version la pagina
+ * no se lee y empleados es null.
+ */
+@Value
+public class PaginaEmpleados<T> {
+
+    String version;
+    List<T> empleados;
+
+    public static <T> PaginaEmpleados<T> noModificada(String version){
+        return new PaginaEmpleados<>(version, null);
+    }
+
+    public boolean isNoModificada(){
+        return empleados == null;
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.andygomez.apirest.main.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.http.HttpStatus;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ResultadoOperacion {
+
+    private int indice;
+    private OperacionEmpleado.Tipo op;
+    private Long id;
+    private int status;
+    private String error;
+
+    public static ResultadoOperacion exito(int indice, OperacionEmpleado operacion, Long id, HttpStatus status){
+        return new ResultadoOperacion(indice, operacion.getOp(), id, status.value(), null);
+    }
+
+    public static ResultadoOperacion error(int indice, OperacionEmpleado operacion, HttpStatus status, String error){
+        return new ResultadoOperacion(indice, operacion.getOp(), operacion.getId(), status.value(), error);
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.andygomez.apirest.main.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado de POST /api/empleados/import. Solo se guardan las primeras filas rechazadas para que
+ * el informe no crezca con el fichero; los contadores si cubren todas.
+ */
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ResumenImportacion {
+
+    public static final int MAXIMO_RECHAZOS = 100;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Rechazo {
+        private long fila;
+        private String email;
+        private int status;
+        private String motivo;
+    }
+
+    private long leidas;
+    private long insertadas;
+    private long duplicadas;
+    private long invalidas;
+    private long errores;
+    private long duracionMs;
+    private double filasPorSegundo;
+    private List<Rechazo> rechazos = new ArrayList<>();
+    //la lectura se corto en esa fila; lo anterior ya quedo guardado
+    private String abortada;
+
+    public void rechazar(long fila, String email, int status, String motivo){
+        if(rechazos.size() < MAXIMO_RECHAZOS){
+            rechazos.add(new Rechazo(fila, email, status, motivo));
+        }
+    }
+
+}
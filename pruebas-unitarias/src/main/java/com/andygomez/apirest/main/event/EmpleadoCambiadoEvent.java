@@ -0,0 +1,32 @@
+package com.andygomez.apirest.main.event;
+
+import com.andygomez.apirest.main.model.Empleado;
+import lombok.Value;
+
+@Value
+public class EmpleadoCambiadoEvent {
+
+    public enum Tipo {
+        CREADO,
+        //en una actualizacion parcial los campos nulos del empleado no cambiaron
+        ACTUALIZADO,
+        ELIMINADO
+    }
+
+    Tipo tipo;
+    Long id;
+    Empleado empleado;
+
+    public static EmpleadoCambiadoEvent creado(Empleado empleado){
+        return new EmpleadoCambiadoEvent(Tipo.CREADO, empleado.getId(), empleado);
+    }
+
+    public static EmpleadoCambiadoEvent actualizado(Empleado empleado){
+        return new EmpleadoCambiadoEvent(Tipo.ACTUALIZADO, empleado.getId(), empleado);
+    }
+
+    public static EmpleadoCambiadoEvent eliminado(Long id){
+        return new EmpleadoCambiadoEvent(Tipo.ELIMINADO, id, null);
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.andygomez.apirest.main.exception;
+
+import com.andygomez.apirest.main.model.Empleado;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class EmailDuplicadoException extends ResourceNotFoundException{
+
+    public EmailDuplicadoException(String email){
+        super("El empleado con ese email ya existe : " + email);
+    }
+
+    public static boolean esViolacionDeEmail(DataIntegrityViolationException e){
+        String indice = Empleado.INDICE_EMAIL.toUpperCase();
+        return contieneIndice(e.getMessage(), indice) || contieneIndice(e.getMostSpecificCause().getMessage(), indice);
+    }
+
+    private static boolean contieneIndice(String mensaje, String indice){
+        return mensaje != null && mensaje.toUpperCase().contains(indice);
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.andygomez.apirest.main.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class IdempotenciaConflictoException extends RuntimeException{
+
+    public IdempotenciaConflictoException(String clave){
+        super("La Idempotency-Key " + clave + " ya se uso con otro cuerpo");
+    }
+
+}
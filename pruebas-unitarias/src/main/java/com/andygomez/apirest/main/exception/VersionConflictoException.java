@@ -0,0 +1,13 @@
+package com.andygomez.apirest.main.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class VersionConflictoException extends RuntimeException{
+
+    public VersionConflictoException(long id){
+        super("El empleado " + id + " fue modificado por otra peticion");
+    }
+
+}
@@ -0,0 +1,146 @@
+package com.andygomez.apirest.main.feed;
+
+import com.andygomez.apirest.main.event.EmpleadoCambiadoEvent;
+import com.andygomez.apirest.main.model.CambioEmpleado;
+import com.andygomez.apirest.main.repository.CambioEmpleadoRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Registro append-only de las escrituras de EmpleadoService en la tabla empleados_cambios.
+ * Cada cambio se inserta en la misma transaccion que la escritura, asi que solo aparece si
+ * esta se confirma. Como las transacciones pueden confirmar en otro orden que el de su
+ * secuencia, los lectores solo ven hasta el horizonte: la secuencia mas alta por debajo de
+ * la cual ya no queda ninguna transaccion abierta. Un consumidor que avanza su since al
+ * ultimo seq recibido no se salta cambios. Los long-poll no bloquean un hilo: esperan en un
+ * CompletableFuture que se completa cuando el horizonte los supera.
+ */
+@Component
+public class RegistroCambios {
+
+    private final ReentrantLock cerrojo = new ReentrantLock();
+    private final TreeSet<Long> enVuelo = new TreeSet<>();
+    private final List<Espera> esperas = new ArrayList<>();
+    private long ultimoAsignado;
+
+    @Autowired
+    private CambioEmpleadoRepository cambioEmpleadoRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @PostConstruct
+    void inicializar() {
+        ultimoAsignado = cambioEmpleadoRepository.buscarUltimaSecuencia();
+    }
+
+    @EventListener
+    public void alCambiarEmpleado(EmpleadoCambiadoEvent evento) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Los cambios de empleados se registran dentro de la transaccion de la escritura");
+        }
+        CambioEmpleado cambio = CambioEmpleado.de(evento);
+        long seq;
+        cerrojo.lock();
+        try {
+            //la secuencia se asigna en persist, bajo el cerrojo para que ultimoAsignado sea monotono
+            entityManager.persist(cambio);
+            seq = cambio.getSeq();
+            ultimoAsignado = Math.max(ultimoAsignado, seq);
+            enVuelo.add(seq);
+        } finally {
+            cerrojo.unlock();
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                liberar(seq);
+            }
+        });
+    }
+
+    public long horizonte() {
+        cerrojo.lock();
+        try {
+            return horizonteActual();
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    /**
+     * Devuelve un future que se completa con el horizonte cuando haya cambios visibles despues
+     * de desde. Quien deja de esperar lo cancela y la espera se descarta.
+     */
+    public CompletableFuture<Long> esperar(long desde) {
+        Espera espera;
+        cerrojo.lock();
+        try {
+            long horizonte = horizonteActual();
+            if (horizonte > desde) {
+                return CompletableFuture.completedFuture(horizonte);
+            }
+            espera = new Espera(desde, new CompletableFuture<>());
+            esperas.add(espera);
+        } finally {
+            cerrojo.unlock();
+        }
+        espera.futuro().whenComplete((horizonte, error) -> {
+            if (error != null) {
+                descartar(espera);
+            }
+        });
+        return espera.futuro();
+    }
+
+    private long horizonteActual() {
+        return enVuelo.isEmpty() ? ultimoAsignado : enVuelo.first() - 1;
+    }
+
+    private void liberar(long seq) {
+        List<Espera> despiertas = new ArrayList<>();
+        long horizonte;
+        cerrojo.lock();
+        try {
+            enVuelo.remove(seq);
+            horizonte = horizonteActual();
+            for (Iterator<Espera> iterador = esperas.iterator(); iterador.hasNext(); ) {
+                Espera espera = iterador.next();
+                if (horizonte > espera.desde()) {
+                    iterador.remove();
+                    despiertas.add(espera);
+                }
+            }
+        } finally {
+            cerrojo.unlock();
+        }
+        //fuera del cerrojo: completar ejecuta los callbacks de quien espera en este hilo
+        despiertas.forEach(espera -> espera.futuro().complete(horizonte));
+    }
+
+    private void descartar(Espera espera) {
+        cerrojo.lock();
+        try {
+            esperas.remove(espera);
+        } finally {
+            cerrojo.unlock();
+        }
+    }
+
+    private record Espera(long desde, CompletableFuture<Long> futuro) {
+    }
+
+}
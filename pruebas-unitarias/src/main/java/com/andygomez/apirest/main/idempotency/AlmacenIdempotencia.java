@@ -0,0 +1,119 @@
+package com.andygomez.apirest.main.idempotency;
+
+import com.andygomez.apirest.main.exception.IdempotenciaConflictoException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Resultado de cada Idempotency-Key durante un tiempo. La primera peticion con una clave ejecuta
+ * la operacion; las repetidas esperan su resultado y lo devuelven sin tocar la base de datos.
+ * Las respuestas 429 y 5xx no se guardan para que el reintento se vuelva a ejecutar.
+ */
+@Component
+@ConditionalOnProperty(name = "empleados.idempotencia.habilitada", havingValue = "true")
+public class AlmacenIdempotencia {
+
+    public static final String CABECERA = "Idempotency-Key";
+    public static final String CABECERA_REPETIDA = "Idempotent-Replayed";
+
+    private record Entrada(String huella, CompletableFuture<ResponseEntity<?>> resultado) {
+    }
+
+    private final ConcurrentMap<String, Entrada> entradas;
+    private final Duration espera;
+
+    @Autowired
+    public AlmacenIdempotencia(@Value("${empleados.idempotencia.tamano-maximo:100000}") long tamanoMaximo,
+                               @Value("${empleados.idempotencia.ttl:24h}") Duration ttl,
+                               @Value("${empleados.idempotencia.espera:30s}") Duration espera) {
+        Cache<String, Entrada> cache = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(ttl)
+                .build();
+        this.entradas = cache.asMap();
+        this.espera = espera;
+    }
+
+    /**
+     * @param huella representacion del cuerpo; la misma clave con otro cuerpo es un error del cliente (422)
+     */
+    public ResponseEntity<?> ejecutar(String clave, String huella, Supplier<ResponseEntity<?>> operacion) {
+        CompletableFuture<ResponseEntity<?>> propio = new CompletableFuture<>();
+        Entrada nueva = new Entrada(huella, propio);
+        Entrada existente = entradas.putIfAbsent(clave, nueva);
+        if (existente == null) {
+            return ejecutarPrimera(clave, nueva, operacion);
+        }
+        if (!existente.huella().equals(huella)) {
+            throw new IdempotenciaConflictoException(clave);
+        }
+        return repetir(existente.resultado());
+    }
+
+    private ResponseEntity<?> ejecutarPrimera(String clave, Entrada entrada, Supplier<ResponseEntity<?>> operacion) {
+        ResponseEntity<?> respuesta;
+        try {
+            respuesta = operacion.get();
+        } catch (RuntimeException e) {
+            //un 4xx como el email duplicado se repite igual; cualquier otro fallo se puede reintentar
+            if (!esErrorDelCliente(e)) {
+                entradas.remove(clave, entrada);
+            }
+            entrada.resultado().completeExceptionally(e);
+            throw e;
+        }
+        HttpStatus status = HttpStatus.resolve(respuesta.getStatusCode().value());
+        if (status == null || status == HttpStatus.TOO_MANY_REQUESTS || status.is5xxServerError()) {
+            entradas.remove(clave, entrada);
+        }
+        entrada.resultado().complete(respuesta);
+        return respuesta;
+    }
+
+    private ResponseEntity<?> repetir(CompletableFuture<ResponseEntity<?>> resultado) {
+        ResponseEntity<?> original;
+        try {
+            original = resultado.get(espera.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            //la primera sigue en curso: 409 como en el borrador del IETF, el cliente reintenta despues
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.status(original.getStatusCode())
+                .headers(original.getHeaders())
+                .header(CABECERA_REPETIDA, "true")
+                .body(original.getBody());
+    }
+
+    private static boolean esErrorDelCliente(RuntimeException e) {
+        ResponseStatus status = AnnotatedElementUtils.findMergedAnnotation(e.getClass(), ResponseStatus.class);
+        return status != null && status.code().is4xxClientError();
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.andygomez.apirest.main.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * StatementInspector de Hibernate que cuenta las sentencias preparadas en el hilo actual.
+ * Hibernate lo instancia por nombre de clase, por eso el contador es estatico por hilo.
+ * MetricasInterceptor abre un contador por peticion y propagar() lo lleva a los hilos del
+ * executor asincrono de MVC, para que los endpoints de streaming tambien cuenten; una
+ * consulta lanzada en un hilo propio (p. ej. un parallel stream) no se ve.
+ */
+public class ContadorSentencias implements StatementInspector {
+
+    private static final ThreadLocal<AtomicLong> CONTADOR = ThreadLocal.withInitial(AtomicLong::new);
+
+    @Override
+    public String inspect(String sql) {
+        CONTADOR.get().incrementAndGet();
+        return sql;
+    }
+
+    public static AtomicLong iniciar() {
+        AtomicLong contador = new AtomicLong();
+        CONTADOR.set(contador);
+        return contador;
+    }
+
+    public static void vincular(AtomicLong contador) {
+        CONTADOR.set(contador);
+    }
+
+    public static long obtener() {
+        return CONTADOR.get().get();
+    }
+
+    //se usa como TaskDecorator: la tarea suma en el contador del hilo que la envio
+    public static Runnable propagar(Runnable tarea) {
+        AtomicLong contador = CONTADOR.get();
+        return () -> {
+            AtomicLong anterior = CONTADOR.get();
+            CONTADOR.set(contador);
+            try {
+                tarea.run();
+            } finally {
+                CONTADOR.set(anterior);
+            }
+        };
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.andygomez.apirest.main.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+@Component
+public class EmpleadoMetricas {
+
+    public static final String TIMER_SERVICIO = "empleados.servicio";
+
+    private final MeterRegistry registry;
+    private final Counter emailDuplicado;
+
+    public EmpleadoMetricas(MeterRegistry registry) {
+        this.registry = registry;
+        this.emailDuplicado = Counter.builder("empleados.email.duplicado")
+                .description("Altas o cambios rechazados por email duplicado")
+                .register(registry);
+    }
+
+    public void registrarEmailDuplicado() {
+        emailDuplicado.increment();
+    }
+
+    public void registrarNoEncontrado(String operacion) {
+        Counter.builder("empleados.no.encontrado")
+                .description("Respuestas 404 de EmpleadoController")
+                .tag("operacion", operacion)
+                .register(registry)
+                .increment();
+    }
+
+    public void registrarSentenciasPeticion(String operacion, long sentencias) {
+        DistributionSummary.builder("empleados.sql.peticion")
+                .description("Sentencias SQL ejecutadas por peticion")
+                .tag("operacion", operacion)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(sentencias);
+    }
+
+    //la proporcion de lecturas coalescidas es compartida / (compartida + consulta) por operacion
+    public void registrarLecturaCoalescible(String operacion, boolean compartida) {
+        Counter.builder("empleados.lecturas.coalescibles")
+                .description("Lecturas que ejecutaron su propia consulta o compartieron una ya en curso")
+                .tag("operacion", operacion)
+                .tag("resultado", compartida ? "compartida" : "consulta")
+                .register(registry)
+                .increment();
+    }
+
+    public void medirLecturasEnVuelo(Map<?, ?> enVuelo) {
+        Gauge.builder("empleados.lecturas.en.vuelo", enVuelo, Map::size)
+                .description("Consultas de lectura en curso que otras llamadas pueden compartir")
+                .register(registry);
+    }
+
+    public void registrarRechazo(String motivo) {
+        Counter.builder("empleados.peticiones.rechazadas")
+                .description("Peticiones rechazadas por el limite por cliente o por el de concurrencia")
+                .tag("motivo", motivo)
+                .register(registry)
+                .increment();
+    }
+
+}
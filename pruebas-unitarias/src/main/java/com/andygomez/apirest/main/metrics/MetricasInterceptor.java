@@ -0,0 +1,53 @@
+package com.andygomez.apirest.main.metrics;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cuenta los 404 de EmpleadoController y registra cuantas sentencias SQL hizo cada peticion,
+ * etiquetado por el metodo del controlador, para que un N+1 se vea en el dashboard.
+ */
+public class MetricasInterceptor implements HandlerInterceptor {
+
+    private static final String ATRIBUTO_CONTADOR = MetricasInterceptor.class.getName() + ".contador";
+
+    private final EmpleadoMetricas empleadoMetricas;
+
+    public MetricasInterceptor(EmpleadoMetricas empleadoMetricas) {
+        this.empleadoMetricas = empleadoMetricas;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        //en el dispatch ASYNC se sigue con el contador de la peticion original
+        if (request.getDispatcherType() == DispatcherType.ASYNC
+                && request.getAttribute(ATRIBUTO_CONTADOR) instanceof AtomicLong contador) {
+            ContadorSentencias.vincular(contador);
+        } else {
+            request.setAttribute(ATRIBUTO_CONTADOR, ContadorSentencias.iniciar());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return;
+        }
+        String operacion = handlerMethod.getMethod().getName();
+        long sentencias = request.getAttribute(ATRIBUTO_CONTADOR) instanceof AtomicLong contador
+                ? contador.get()
+                : ContadorSentencias.obtener();
+        empleadoMetricas.registrarSentenciasPeticion(operacion, sentencias);
+        if (response.getStatus() == HttpStatus.NOT_FOUND.value()) {
+            empleadoMetricas.registrarNoEncontrado(operacion);
+        }
+    }
+
+}
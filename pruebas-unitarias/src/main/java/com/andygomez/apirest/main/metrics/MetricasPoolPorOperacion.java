@@ -0,0 +1,87 @@
+package com.andygomez.apirest.main.metrics;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mantiene las metricas hikaricp.* de siempre y ademas registra la espera por una conexion,
+ * el tiempo que se retiene y los timeouts etiquetados con la operacion de EmpleadoService.
+ * Hikari llama al tracker en el hilo que pide y en el que devuelve la conexion. El uso se etiqueta
+ * con la operacion que la pidio: con open-in-view la conexion se devuelve al terminar la peticion,
+ * cuando el servicio ya ha salido.
+ */
+public class MetricasPoolPorOperacion implements MetricsTrackerFactory {
+
+    private final MeterRegistry registry;
+    private final MicrometerMetricsTrackerFactory micrometer;
+
+    public MetricasPoolPorOperacion(MeterRegistry registry) {
+        this.registry = registry;
+        this.micrometer = new MicrometerMetricsTrackerFactory(registry);
+    }
+
+    @Override
+    public IMetricsTracker create(String pool, PoolStats poolStats) {
+        IMetricsTracker delegado = micrometer.create(pool, poolStats);
+        //un hilo puede retener varias conexiones anidadas, se devuelven en orden inverso
+        ThreadLocal<Deque<String>> operaciones = ThreadLocal.withInitial(ArrayDeque::new);
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionCreatedMillis(long milisegundos) {
+                delegado.recordConnectionCreatedMillis(milisegundos);
+            }
+
+            @Override
+            public void recordConnectionAcquiredNanos(long nanos) {
+                delegado.recordConnectionAcquiredNanos(nanos);
+                String operacion = OperacionActual.obtener();
+                operaciones.get().push(operacion);
+                timer("empleados.conexion.espera", pool, operacion).record(nanos, TimeUnit.NANOSECONDS);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long milisegundos) {
+                delegado.recordConnectionUsageMillis(milisegundos);
+                String operacion = operaciones.get().poll();
+                if (operaciones.get().isEmpty()) {
+                    operaciones.remove();
+                }
+                timer("empleados.conexion.uso", pool, operacion != null ? operacion : OperacionActual.obtener())
+                        .record(milisegundos, TimeUnit.MILLISECONDS);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                delegado.recordConnectionTimeout();
+                Counter.builder("empleados.conexion.timeout")
+                        .tag("pool", pool)
+                        .tag("operacion", OperacionActual.obtener())
+                        .register(registry)
+                        .increment();
+            }
+
+            @Override
+            public void close() {
+                delegado.close();
+            }
+        };
+    }
+
+    private Timer timer(String nombre, String pool, String operacion) {
+        return Timer.builder(nombre)
+                .tag("pool", pool)
+                .tag("operacion", operacion)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+}
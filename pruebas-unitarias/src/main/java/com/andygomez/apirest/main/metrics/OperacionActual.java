@@ -0,0 +1,35 @@
+package com.andygomez.apirest.main.metrics;
+
+/**
+ * Metodo de EmpleadoService que se esta ejecutando en el hilo actual, para etiquetar
+ * metricas que se registran lejos del servicio (p. ej. dentro del pool de conexiones).
+ */
+public final class OperacionActual {
+
+    public static final String NINGUNA = "ninguna";
+
+    private static final ThreadLocal<String> OPERACION = new ThreadLocal<>();
+
+    private OperacionActual() {
+    }
+
+    public static String obtener() {
+        String operacion = OPERACION.get();
+        return operacion != null ? operacion : NINGUNA;
+    }
+
+    static String establecer(String operacion) {
+        String anterior = OPERACION.get();
+        OPERACION.set(operacion);
+        return anterior;
+    }
+
+    static void restaurar(String anterior) {
+        if (anterior == null) {
+            OPERACION.remove();
+        } else {
+            OPERACION.set(anterior);
+        }
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.andygomez.apirest.main.metrics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+//por fuera de @Transactional para que la conexion se pida y se devuelva con la operacion ya marcada
+@Aspect
+@Component
+@Order(0)
+public class OperacionServicioAspect {
+
+    @Around("execution(* com.andygomez.apirest.main.service.EmpleadoService+.*(..))")
+    public Object marcarOperacion(ProceedingJoinPoint joinPoint) throws Throwable {
+        String anterior = OperacionActual.establecer(joinPoint.getSignature().getName());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            OperacionActual.restaurar(anterior);
+        }
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.andygomez.apirest.main.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.support.ServletRequestHandledEvent;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Registra cuanto tardo la aplicacion en estar lista y en servir la primera peticion, contado desde
+ * que arranco la JVM. Con inicializacion perezosa lo segundo es lo que importa para el autoescalado,
+ * porque parte del arranque se paga en esa primera peticion.
+ */
+@Component
+public class TiempoArranque {
+
+    private static final Logger log = LoggerFactory.getLogger(TiempoArranque.class);
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final AtomicBoolean primeraPeticion = new AtomicBoolean(true);
+
+    public TiempoArranque(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @EventListener
+    public void lista(ApplicationReadyEvent evento) {
+        log.info("Aplicacion lista en {} ms ({} ms desde el arranque de la JVM)",
+                evento.getTimeTaken().toMillis(), ManagementFactory.getRuntimeMXBean().getUptime());
+    }
+
+    @EventListener
+    public void peticionAtendida(ServletRequestHandledEvent evento) {
+        if (!primeraPeticion.get() || !primeraPeticion.compareAndSet(true, false)) {
+            return;
+        }
+        long desdeArranque = ManagementFactory.getRuntimeMXBean().getUptime();
+        log.info("Primera peticion ({}) atendida a los {} ms del arranque de la JVM, en {} ms",
+                evento.getRequestUrl(), desdeArranque, evento.getProcessingTimeMillis());
+        meterRegistry.ifAvailable(registry -> TimeGauge.builder("empleados.arranque.primera.peticion",
+                        () -> desdeArranque, TimeUnit.MILLISECONDS)
+                .description("Tiempo desde el arranque de la JVM hasta la primera peticion atendida")
+                .register(registry));
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.andygomez.apirest.main.model;
+
+import com.andygomez.apirest.main.event.EmpleadoCambiadoEvent;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Table(name = "empleados_cambios")
+public class CambioEmpleado {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "empleados_cambios_seq")
+    @SequenceGenerator(name = "empleados_cambios_seq", sequenceName = "empleados_cambios_seq", allocationSize = 50)
+    private Long seq;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo", nullable = false, length = 16)
+    private EmpleadoCambiadoEvent.Tipo tipo;
+
+    @Column(name = "empleado_id", nullable = false)
+    private Long id;
+
+    //en ACTUALIZADO por PATCH solo vienen los campos que cambiaron, en ELIMINADO ninguno
+    @Column(name = "nombre")
+    private String nombre;
+    @Column(name = "apellido")
+    private String apellido;
+    @Column(name = "email")
+    private String email;
+    @Column(name = "version")
+    private Long version;
+
+    @Column(name = "fecha", nullable = false)
+    private Instant fecha;
+
+    public static CambioEmpleado de(EmpleadoCambiadoEvent evento){
+        CambioEmpleadoBuilder cambio = CambioEmpleado.builder()
+                .tipo(evento.getTipo())
+                .id(evento.getId())
+                .fecha(Instant.now());
+        Empleado empleado = evento.getEmpleado();
+        if(empleado != null){
+            cambio.nombre(empleado.getNombre())
+                    .apellido(empleado.getApellido())
+                    .email(empleado.getEmail())
+                    .version(empleado.getVersion());
+        }
+        return cambio.build();
+    }
+
+}
@@ -1,22 +1,36 @@
 package com.andygomez.apirest.main.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
-import javax.persistence.*;
+import jakarta.persistence.*;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Empleado.REGION_CACHE)
+//PUT y PATCH sobre la entidad gestionada solo escriben las columnas que cambian
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
-@Table(name = "empleados")
+@Builder(toBuilder = true)
+@Table(name = "empleados", indexes = {
+        @Index(name = Empleado.INDICE_EMAIL, columnList = "email", unique = true)
+})
 public class Empleado {
 
+    public static final String INDICE_EMAIL = "uk_empleados_email";
+    public static final String REGION_CACHE = "empleados";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "empleados_seq")
+    @SequenceGenerator(name = "empleados_seq", sequenceName = "empleados_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "nombre", nullable = false)
@@ -26,4 +40,10 @@ public class Empleado {
     @Column(name = "email",nullable = false)
     private String email;
 
+    //se devuelve en el cuerpo y en la cabecera ETag, pero solo se acepta via If-Match: en el cuerpo se ignora
+    @Version
+    @Column(name = "version", nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
 }
@@ -0,0 +1,43 @@
+package com.andygomez.apirest.main.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Token bucket sin bloqueos: el estado (tokens y ultima recarga) es inmutable y se reemplaza
+ * con compareAndSet, asi dos peticiones del mismo cliente nunca esperan un lock.
+ */
+public class CubetaTokens {
+
+    private record Estado(double tokens, long instante) {
+    }
+
+    private final double capacidad;
+    private final double tokensPorNano;
+    private final AtomicReference<Estado> estado;
+
+    public CubetaTokens(int capacidad, double recargaPorSegundo, long ahora) {
+        this.capacidad = capacidad;
+        this.tokensPorNano = recargaPorSegundo / TimeUnit.SECONDS.toNanos(1);
+        this.estado = new AtomicReference<>(new Estado(capacidad, ahora));
+    }
+
+    /**
+     * Devuelve 0 si se consumieron los tokens o los nanosegundos que faltan para que haya suficientes.
+     */
+    public long consumir(int peso, long ahora) {
+        //un peso mayor que la capacidad nunca se podria atender
+        double necesarios = Math.min(peso, capacidad);
+        while (true) {
+            Estado actual = estado.get();
+            double tokens = Math.min(capacidad, actual.tokens() + Math.max(0, ahora - actual.instante()) * tokensPorNano);
+            if (tokens < necesarios) {
+                return (long) Math.ceil((necesarios - tokens) / tokensPorNano);
+            }
+            if (estado.compareAndSet(actual, new Estado(tokens - necesarios, Math.max(ahora, actual.instante())))) {
+                return 0;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,76 @@
+package com.andygomez.apirest.main.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Limite de peticiones en vuelo que se ajusta con AIMD segun la latencia: cada peticion rapida
+ * con el limite en uso lo sube poco a poco y una lenta lo reduce un 10%, como mucho una vez por
+ * cada latencia objetivo para que una rafaga de respuestas lentas no lo hunda de golpe.
+ */
+public class LimitadorConcurrencia {
+
+    private static final double FACTOR_REDUCCION = 0.9;
+
+    private final int limiteMinimo;
+    private final int limiteMaximo;
+    private final long latenciaObjetivo;
+    private final AtomicInteger enVuelo = new AtomicInteger();
+    //double guardado como bits para poder hacer CAS
+    private final AtomicLong limite;
+    private final AtomicLong ultimaReduccion;
+
+    public LimitadorConcurrencia(int limiteInicial, int limiteMinimo, int limiteMaximo, Duration latenciaObjetivo) {
+        this.limiteMinimo = limiteMinimo;
+        this.limiteMaximo = limiteMaximo;
+        this.latenciaObjetivo = latenciaObjetivo.toNanos();
+        this.limite = new AtomicLong(Double.doubleToLongBits(Math.clamp(limiteInicial, limiteMinimo, limiteMaximo)));
+        this.ultimaReduccion = new AtomicLong(System.nanoTime() - this.latenciaObjetivo);
+    }
+
+    public boolean adquirir() {
+        int limiteActual = limite();
+        while (true) {
+            int actuales = enVuelo.get();
+            if (actuales >= limiteActual) {
+                return false;
+            }
+            if (enVuelo.compareAndSet(actuales, actuales + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void liberar(long latencia, long ahora) {
+        int actuales = enVuelo.getAndDecrement();
+        if (latencia > latenciaObjetivo) {
+            long ultima = ultimaReduccion.get();
+            if (ahora - ultima >= latenciaObjetivo && ultimaReduccion.compareAndSet(ultima, ahora)) {
+                ajustar(valor -> Math.max(limiteMinimo, valor * FACTOR_REDUCCION));
+            }
+        } else if (actuales * 2 >= limite()) {
+            //solo crece si se esta usando, si no un periodo tranquilo lo llevaria al maximo
+            ajustar(valor -> Math.min(limiteMaximo, valor + 1 / valor));
+        }
+    }
+
+    //para las peticiones cuya duracion no mide la carga: deja el hueco sin tocar el limite
+    public void liberarSinMuestra() {
+        enVuelo.decrementAndGet();
+    }
+
+    public int limite() {
+        return (int) Double.longBitsToDouble(limite.get());
+    }
+
+    public int enVuelo() {
+        return enVuelo.get();
+    }
+
+    private void ajustar(DoubleUnaryOperator ajuste) {
+        limite.updateAndGet(bits -> Double.doubleToLongBits(ajuste.applyAsDouble(Double.longBitsToDouble(bits))));
+    }
+
+}
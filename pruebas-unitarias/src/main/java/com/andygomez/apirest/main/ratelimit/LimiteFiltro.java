@@ -0,0 +1,149 @@
+package com.andygomez.apirest.main.ratelimit;
+
+import com.andygomez.apirest.main.config.PropiedadesLimite;
+import com.andygomez.apirest.main.metrics.EmpleadoMetricas;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Filtro delante de /api/empleados: primero el token bucket del cliente (429) y despues el limite
+ * adaptativo de concurrencia (503). Los dos rechazos llevan Retry-After.
+ */
+public class LimiteFiltro extends OncePerRequestFilter {
+
+    private static final String RUTA = "/api/empleados";
+
+    private final PropiedadesLimite propiedades;
+    private final LimitadorConcurrencia limitadorConcurrencia;
+    private final EmpleadoMetricas empleadoMetricas;
+    //Caffeine reparte los clientes en segmentos y expira los inactivos, el mapa no crece sin limite
+    private final Cache<String, CubetaTokens> cubetas;
+
+    public LimiteFiltro(PropiedadesLimite propiedades, LimitadorConcurrencia limitadorConcurrencia, EmpleadoMetricas empleadoMetricas) {
+        this.propiedades = propiedades;
+        this.limitadorConcurrencia = limitadorConcurrencia;
+        this.empleadoMetricas = empleadoMetricas;
+        //pasado el tiempo de llenar la cubeta un cliente nuevo empezaria igual, se puede olvidar
+        long llenado = (long) Math.ceil(propiedades.capacidad() / propiedades.recargaPorSegundo());
+        this.cubetas = Caffeine.newBuilder()
+                .maximumSize(propiedades.clientesMaximos())
+                .expireAfterAccess(Duration.ofSeconds(Math.max(1, llenado)))
+                .build();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String ruta = request.getRequestURI().substring(request.getContextPath().length());
+        long inicio = System.nanoTime();
+        CubetaTokens cubeta = cubetas.get(cliente(request),
+                clave -> new CubetaTokens(propiedades.capacidad(), propiedades.recargaPorSegundo(), inicio));
+        long espera = cubeta.consumir(peso(request.getMethod(), ruta), inicio);
+        if (espera > 0) {
+            rechazar(response, HttpStatus.TOO_MANY_REQUESTS, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(espera + TimeUnit.SECONDS.toNanos(1) - 1)));
+            empleadoMetricas.registrarRechazo("limite");
+            return;
+        }
+        //el long-poll del feed espera a proposito y una importacion dura lo que el fichero,
+        //su latencia no dice nada de la carga
+        if (limitadorConcurrencia == null || ruta.startsWith(RUTA + "/changes") || ruta.startsWith(RUTA + "/import")) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!limitadorConcurrencia.adquirir()) {
+            rechazar(response, HttpStatus.SERVICE_UNAVAILABLE, 1);
+            empleadoMetricas.registrarRechazo("concurrencia");
+            return;
+        }
+        boolean asincrona = false;
+        try {
+            filterChain.doFilter(request, response);
+            asincrona = request.isAsyncStarted();
+        } finally {
+            if (asincrona) {
+                //los streams y el export siguen en otro hilo, la peticion sigue en vuelo hasta que acaben
+                request.getAsyncContext().addListener(new LiberarAlTerminar());
+            } else if (ruta.startsWith(RUTA + "/_bulk")) {
+                //un lote dura lo que sus operaciones, como los streams ocupa hueco pero no da muestra
+                limitadorConcurrencia.liberarSinMuestra();
+            } else {
+                long fin = System.nanoTime();
+                limitadorConcurrencia.liberar(fin - inicio, fin);
+            }
+        }
+    }
+
+    int peso(String metodo, String ruta) {
+        PropiedadesLimite.Pesos pesos = propiedades.pesos();
+        if (!HttpMethod.GET.matches(metodo)) {
+            return ruta.startsWith(RUTA + "/_bulk") || ruta.startsWith(RUTA + "/import") ? pesos.bulk() : pesos.escritura();
+        }
+        return ruta.equals(RUTA) || ruta.equals(RUTA + "/") || ruta.startsWith(RUTA + "/export") ? pesos.listado() : pesos.consulta();
+    }
+
+    private String cliente(HttpServletRequest request) {
+        if (propiedades.cabeceraCliente() != null) {
+            String cliente = request.getHeader(propiedades.cabeceraCliente());
+            if (cliente != null && !cliente.isBlank()) {
+                return cliente;
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    //tras onError o onTimeout tambien llega onComplete, se libera una sola vez; lo que tarda un
+    //stream depende del tamano de la tabla y del cliente, no de la carga, asi que no da muestra
+    private class LiberarAlTerminar implements AsyncListener {
+
+        private final AtomicBoolean liberada = new AtomicBoolean();
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            terminar();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            terminar();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            terminar();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            //un nuevo ciclo asincrono quita los listeners, hay que volver a registrarse
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void terminar() {
+            if (liberada.compareAndSet(false, true)) {
+                limitadorConcurrencia.liberarSinMuestra();
+            }
+        }
+
+    }
+
+    private static void rechazar(HttpServletResponse response, HttpStatus status, long reintentarSegundos) {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(reintentarSegundos));
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.andygomez.apirest.main.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Envia las transacciones readOnly a las replicas por turnos y todo lo demas a la primaria.
+ * Debe ir detras de un LazyConnectionDataSourceProxy: la transaccion pide la conexion antes
+ * de marcarse como readOnly y el proxy retrasa la eleccion hasta la primera sentencia.
+ */
+public class DataSourceEnrutado extends AbstractRoutingDataSource implements AutoCloseable {
+
+    public static final String PRIMARIA = "primaria";
+
+    private final List<String> replicas;
+    private final VentanaLecturaEscritura ventana;
+    private final AtomicInteger siguiente = new AtomicInteger();
+
+    public DataSourceEnrutado(List<String> replicas, VentanaLecturaEscritura ventana) {
+        this.replicas = replicas;
+        this.ventana = ventana;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicas.isEmpty()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || ventana.activa()) {
+            return PRIMARIA;
+        }
+        return replicas.get(Math.floorMod(siguiente.getAndIncrement(), replicas.size()));
+    }
+
+    //la primaria es un bean propio y la cierra el contexto
+    @Override
+    public void close() {
+        replicas.forEach(replica -> ((HikariDataSource) getResolvedDataSources().get(replica)).close());
+    }
+
+}
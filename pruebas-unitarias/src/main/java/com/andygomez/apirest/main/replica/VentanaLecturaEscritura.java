@@ -0,0 +1,86 @@
+package com.andygomez.apirest.main.replica;
+
+import com.andygomez.apirest.main.event.EmpleadoCambiadoEvent;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+
+/**
+ * Durante un tiempo despues de confirmar una escritura de empleados las lecturas de quien la hizo
+ * van a la primaria, para que no lea de una replica que aun no la tiene. La ventana es de cada
+ * cliente: la escritura deja una cookie con su instante y VentanaLecturaEscrituraFiltro la vincula
+ * al hilo de las siguientes peticiones de ese cliente; el resto sigue leyendo de las replicas.
+ */
+public class VentanaLecturaEscritura {
+
+    public static final String COOKIE = "empleados-ultima-escritura";
+
+    private final long ventanaMillis;
+    //instante (epoch ms) de la ultima escritura del cliente de la peticion en curso
+    private final ThreadLocal<Long> ultimaEscritura = new ThreadLocal<>();
+
+    public VentanaLecturaEscritura(Duration ventana) {
+        this.ventanaMillis = ventana.toMillis();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarEmpleado(EmpleadoCambiadoEvent evento) {
+        long ahora = System.currentTimeMillis();
+        ultimaEscritura.set(ahora);
+        recordarEnCliente(ahora);
+    }
+
+    public boolean activa() {
+        Long instante = ultimaEscritura.get();
+        return instante != null && System.currentTimeMillis() - instante < ventanaMillis;
+    }
+
+    public void vincular(Long instante) {
+        if (instante == null) {
+            ultimaEscritura.remove();
+        } else {
+            ultimaEscritura.set(instante);
+        }
+    }
+
+    public void desvincular() {
+        ultimaEscritura.remove();
+    }
+
+    //se usa como TaskDecorator: el streaming de una peticion lee donde leeria la peticion
+    public Runnable propagar(Runnable tarea) {
+        Long instante = ultimaEscritura.get();
+        return () -> {
+            Long anterior = ultimaEscritura.get();
+            vincular(instante);
+            try {
+                tarea.run();
+            } finally {
+                vincular(anterior);
+            }
+        };
+    }
+
+    private void recordarEnCliente(long instante) {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes atributos)) {
+            return;
+        }
+        HttpServletResponse response = atributos.getResponse();
+        if (response == null || response.isCommitted()) {
+            return;
+        }
+        //Max-Age va en segundos: se redondea hacia arriba, la ventana real la decide activa()
+        ResponseCookie cookie = ResponseCookie.from(COOKIE, Long.toString(instante))
+                .path("/")
+                .httpOnly(true)
+                .maxAge(Math.max(1, (ventanaMillis + 999) / 1000))
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+
+}
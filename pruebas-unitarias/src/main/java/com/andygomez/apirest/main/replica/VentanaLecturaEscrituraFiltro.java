@@ -0,0 +1,53 @@
+package com.andygomez.apirest.main.replica;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+
+/**
+ * Vincula al hilo de la peticion el instante de la ultima escritura del cliente, que llega en la
+ * cookie de VentanaLecturaEscritura. Tambien en el dispatch ASYNC, donde se escriben los streaming.
+ */
+public class VentanaLecturaEscrituraFiltro extends OncePerRequestFilter {
+
+    private final VentanaLecturaEscritura ventana;
+
+    public VentanaLecturaEscrituraFiltro(VentanaLecturaEscritura ventana) {
+        this.ventana = ventana;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ventana.vincular(ultimaEscritura(request));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ventana.desvincular();
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    private static Long ultimaEscritura(HttpServletRequest request) {
+        Cookie cookie = WebUtils.getCookie(request, VentanaLecturaEscritura.COOKIE);
+        if (cookie == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(cookie.getValue());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.andygomez.apirest.main.repository;
+
+import com.andygomez.apirest.main.model.CambioEmpleado;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+//no readOnly: el horizonte del registro solo vale contra la primaria, nunca contra una replica con retraso
+@Transactional
+public interface CambioEmpleadoRepository extends JpaRepository<CambioEmpleado, Long> {
+
+    List<CambioEmpleado> findBySeqGreaterThanAndSeqLessThanEqualOrderBySeqAsc(Long desde, Long hasta, Pageable pageable);
+
+    @Query("select coalesce(max(c.seq), 0) from CambioEmpleado c")
+    long buscarUltimaSecuencia();
+
+}
@@ -1,12 +1,65 @@
 package com.andygomez.apirest.main.repository;
 
 import com.andygomez.apirest.main.model.Empleado;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface EmpleadoRepository extends JpaRepository<Empleado, Long> {
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
+public interface EmpleadoRepository extends JpaRepository<Empleado, Long>, EmpleadoRepositoryCustom {
+
+    //solo usa la cache de consultas si hibernate.cache.use_query_cache esta activo
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Optional<Empleado> findByEmail(String email);
 
+    @Query("select e.email from Empleado e where e.email in :emails")
+    List<String> buscarEmailsExistentes(@Param("emails") Collection<String> emails);
+
+    @QueryHints(@QueryHint(name = HINT_READ_ONLY, value = "true"))
+    List<Empleado> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    Stream<Empleado> streamAllByOrderByIdAsc();
+
+    @Query("select e from Empleado e where lower(e.nombre) like :prefijo escape '\\' "
+            + "or lower(e.apellido) like :prefijo escape '\\' "
+            + "or lower(e.email) like :prefijo escape '\\' order by e.id")
+    List<Empleado> buscarPorPrefijo(@Param("prefijo") String prefijo, Pageable pageable);
+
+    @Modifying
+    @Query("update Empleado e set e.nombre = :nombre, e.apellido = :apellido, e.email = :email, e.version = e.version + 1 "
+            + "where e.id = :id and (:version is null or e.version = :version)")
+    int actualizarEmpleado(@Param("id") Long id,
+                           @Param("nombre") String nombre,
+                           @Param("apellido") String apellido,
+                           @Param("email") String email,
+                           @Param("version") Long version);
+
+    @Query(value = "select count(*) as total, coalesce(max(id), 0) as maximo, coalesce(sum(id), 0) as sumaIds, "
+            + "coalesce(sum(version), 0) as sumaVersiones "
+            + "from (select id, version from empleados where id > :id order by id limit :limite) as pagina", nativeQuery = true)
+    ResumenPagina resumirPagina(@Param("id") long id, @Param("limite") int limite);
+
+    interface ResumenPagina {
+        Long getTotal();
+        Long getMaximo();
+        Long getSumaIds();
+        Long getSumaVersiones();
+    }
+
 }
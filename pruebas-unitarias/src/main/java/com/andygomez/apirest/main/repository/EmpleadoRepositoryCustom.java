@@ -0,0 +1,21 @@
+package com.andygomez.apirest.main.repository;
+
+import com.andygomez.apirest.main.model.Empleado;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+public interface EmpleadoRepositoryCustom {
+
+    //campos que se pueden pedir con ?fields=, en el orden en que se devuelven
+    List<String> CAMPOS = List.of("id", "nombre", "apellido", "email", "version");
+
+    int actualizarParcial(Long id, Empleado cambios, Long version);
+
+    List<Map<String, Object>> proyectarPagina(Set<String> campos, long despuesDeId, int limite);
+
+    Optional<Map<String, Object>> proyectarPorId(Set<String> campos, Long id);
+
+}
@@ -0,0 +1,106 @@
+package com.andygomez.apirest.main.repository;
+
+import com.andygomez.apirest.main.model.Empleado;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+public class EmpleadoRepositoryCustomImpl implements EmpleadoRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int actualizarParcial(Long id, Empleado cambios, Long version) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Empleado> update = criteriaBuilder.createCriteriaUpdate(Empleado.class);
+        Root<Empleado> empleado = update.from(Empleado.class);
+
+        boolean hayCambios = false;
+        if(cambios.getNombre() != null){
+            update.set("nombre", cambios.getNombre());
+            hayCambios = true;
+        }
+        if(cambios.getApellido() != null){
+            update.set("apellido", cambios.getApellido());
+            hayCambios = true;
+        }
+        if(cambios.getEmail() != null){
+            update.set("email", cambios.getEmail());
+            hayCambios = true;
+        }
+        if(!hayCambios){
+            throw new IllegalArgumentException("No hay campos para actualizar");
+        }
+
+        update.set(empleado.<Long>get("version"), criteriaBuilder.sum(empleado.<Long>get("version"), 1L));
+        if(version == null){
+            update.where(criteriaBuilder.equal(empleado.get("id"), id));
+        } else {
+            update.where(criteriaBuilder.equal(empleado.get("id"), id),
+                    criteriaBuilder.equal(empleado.get("version"), version));
+        }
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    @Override
+    public List<Map<String, Object>> proyectarPagina(Set<String> campos, long despuesDeId, int limite) {
+        return entityManager.createQuery(proyeccion(campos, (criteriaBuilder, empleado) -> criteriaBuilder.greaterThan(empleado.get("id"), despuesDeId)))
+                .setMaxResults(limite)
+                .getResultStream()
+                .map(fila -> aMapa(fila, campos))
+                .toList();
+    }
+
+    @Override
+    public Optional<Map<String, Object>> proyectarPorId(Set<String> campos, Long id) {
+        return entityManager.createQuery(proyeccion(campos, (criteriaBuilder, empleado) -> criteriaBuilder.equal(empleado.get("id"), id)))
+                .getResultStream()
+                .findFirst()
+                .map(fila -> aMapa(fila, campos));
+    }
+
+    //se seleccionan solo las columnas pedidas; las tuplas no pasan por el contexto de persistencia
+    private CriteriaQuery<Tuple> proyeccion(Set<String> campos, Filtro filtro) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Empleado> empleado = query.from(Empleado.class);
+
+        List<Selection<?>> seleccion = CAMPOS.stream()
+                .filter(campo -> campo.equals("id") || campos.contains(campo))
+                .<Selection<?>>map(campo -> empleado.get(campo).alias(campo))
+                .toList();
+        return query.multiselect(seleccion)
+                .where(filtro.aplicar(criteriaBuilder, empleado))
+                .orderBy(criteriaBuilder.asc(empleado.get("id")));
+    }
+
+    private static Map<String, Object> aMapa(Tuple fila, Set<String> campos) {
+        Map<String, Object> mapa = new LinkedHashMap<>();
+        for (String campo : CAMPOS) {
+            if (campo.equals("id") || campos.contains(campo)) {
+                mapa.put(campo, fila.get(campo));
+            }
+        }
+        return mapa;
+    }
+
+    private interface Filtro {
+        Predicate aplicar(CriteriaBuilder criteriaBuilder, Root<Empleado> empleado);
+    }
+
+}
@@ -0,0 +1,213 @@
+package com.andygomez.apirest.main.search;
+
+import com.andygomez.apirest.main.event.EmpleadoCambiadoEvent;
+import com.andygomez.apirest.main.model.Empleado;
+import com.andygomez.apirest.main.repository.EmpleadoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Indice invertido en memoria por prefijo sobre nombre, apellido y email. Cada termino
+ * normalizado (minusculas y sin acentos) se guarda junto al id en un skip list ordenado,
+ * asi una busqueda por prefijo es un recorrido de rango que se corta al llegar al limite.
+ * Se carga al arrancar y se mantiene con los eventos de escritura de EmpleadoService.
+ */
+@Component
+@ConditionalOnProperty(name = "empleados.busqueda.habilitada", havingValue = "true", matchIfMissing = true)
+public class IndiceBusquedaEmpleados {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceBusquedaEmpleados.class);
+
+    private static final Pattern DIACRITICOS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("\\s+");
+
+    private static final Comparator<Entrada> ORDEN = Comparator
+            .comparing(Entrada::termino)
+            .thenComparingLong(Entrada::id);
+
+    private final ConcurrentSkipListSet<Entrada> terminos = new ConcurrentSkipListSet<>(ORDEN);
+    private final ConcurrentMap<Long, Empleado> empleados = new ConcurrentHashMap<>();
+    //ids eliminados mientras se recorre la tabla: la fila puede seguir en el cursor de la carga
+    private final Set<Long> eliminadosDuranteCarga = ConcurrentHashMap.newKeySet();
+    private volatile boolean cargando;
+
+    @Autowired
+    private EmpleadoRepository empleadoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        long inicio = System.nanoTime();
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        transaccion.setReadOnly(true);
+        transaccion.executeWithoutResult(estado -> {
+            try (Stream<Empleado> stream = empleadoRepository.streamAllByOrderByIdAsc()) {
+                cargar(stream.peek(entityManager::detach));
+            }
+        });
+        log.info("Indice de busqueda cargado con {} empleados en {} ms",
+                empleados.size(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    void cargar(Stream<Empleado> stream) {
+        cargando = true;
+        try {
+            stream.forEach(this::cargarEmpleado);
+        } finally {
+            cargando = false;
+            eliminadosDuranteCarga.clear();
+        }
+    }
+
+    private void cargarEmpleado(Empleado empleado) {
+        empleados.compute(empleado.getId(), (id, anterior) -> {
+            //si ya llego un evento para este id durante la carga, ese valor es mas reciente;
+            //la comprobacion va dentro de compute para no cruzarse con un eliminar del mismo id
+            if (anterior != null || eliminadosDuranteCarga.contains(id)) {
+                return anterior;
+            }
+            Empleado actual = empleado.toBuilder().build();
+            terminosDe(actual).forEach(termino -> terminos.add(new Entrada(termino, id)));
+            return actual;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarEmpleado(EmpleadoCambiadoEvent evento) {
+        if (evento.getTipo() == EmpleadoCambiadoEvent.Tipo.ELIMINADO) {
+            eliminar(evento.getId());
+        } else {
+            indexar(evento.getEmpleado());
+        }
+    }
+
+    public void indexar(Empleado cambios) {
+        if (esParcial(cambios) && !empleados.containsKey(cambios.getId())) {
+            //un PATCH de un empleado que la carga aun no ha indexado: sin la entrada anterior no hay
+            //con que completar el evento, y la fila que tenga el cursor puede ser la de antes del cambio
+            empleadoRepository.findById(cambios.getId()).ifPresent(this::combinar);
+            return;
+        }
+        combinar(cambios);
+    }
+
+    private void combinar(Empleado cambios) {
+        empleados.compute(cambios.getId(), (id, anterior) -> {
+            Empleado actual = Empleado.builder()
+                    .id(id)
+                    .nombre(cambios.getNombre() != null || anterior == null ? cambios.getNombre() : anterior.getNombre())
+                    .apellido(cambios.getApellido() != null || anterior == null ? cambios.getApellido() : anterior.getApellido())
+                    .email(cambios.getEmail() != null || anterior == null ? cambios.getEmail() : anterior.getEmail())
+                    .version(cambios.getVersion() != null || anterior == null ? cambios.getVersion() : anterior.getVersion())
+                    .build();
+            if (anterior != null) {
+                terminosDe(anterior).forEach(termino -> terminos.remove(new Entrada(termino, id)));
+            }
+            terminosDe(actual).forEach(termino -> terminos.add(new Entrada(termino, id)));
+            return actual;
+        });
+    }
+
+    public void eliminar(Long id) {
+        if (cargando) {
+            eliminadosDuranteCarga.add(id);
+        }
+        empleados.computeIfPresent(id, (clave, anterior) -> {
+            terminosDe(anterior).forEach(termino -> terminos.remove(new Entrada(termino, clave)));
+            return null;
+        });
+    }
+
+    public List<Empleado> buscar(String consulta, int limite) {
+        String prefijo = normalizar(consulta);
+        Set<Long> ids = new LinkedHashSet<>();
+        if (!prefijo.isEmpty()) {
+            Set<Entrada> rango = terminos.subSet(
+                    new Entrada(prefijo, Long.MIN_VALUE), true,
+                    new Entrada(prefijo + Character.MAX_VALUE, Long.MIN_VALUE), false);
+            for (Entrada entrada : rango) {
+                ids.add(entrada.id());
+                if (ids.size() == limite) {
+                    break;
+                }
+            }
+        }
+        List<Empleado> resultado = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Empleado empleado = empleados.get(id);
+            if (empleado != null) {
+                resultado.add(empleado.toBuilder().build());
+            }
+        }
+        return resultado;
+    }
+
+    public int tamano() {
+        return empleados.size();
+    }
+
+    private static boolean esParcial(Empleado empleado) {
+        return empleado.getNombre() == null || empleado.getApellido() == null || empleado.getEmail() == null;
+    }
+
+    private static Set<String> terminosDe(Empleado empleado) {
+        Set<String> resultado = new LinkedHashSet<>();
+        agregarTerminos(resultado, empleado.getNombre());
+        agregarTerminos(resultado, empleado.getApellido());
+        if (empleado.getEmail() != null) {
+            resultado.add(normalizar(empleado.getEmail()));
+        }
+        return resultado;
+    }
+
+    private static void agregarTerminos(Set<String> resultado, String texto) {
+        if (texto == null) {
+            return;
+        }
+        String normalizado = normalizar(texto);
+        if (normalizado.isEmpty()) {
+            return;
+        }
+        resultado.add(normalizado);
+        for (String palabra : SEPARADORES.split(normalizado)) {
+            resultado.add(palabra);
+        }
+    }
+
+    static String normalizar(String texto) {
+        String sinAcentos = DIACRITICOS.matcher(Normalizer.normalize(texto.trim(), Normalizer.Form.NFD)).replaceAll("");
+        return sinAcentos.toLowerCase(Locale.ROOT);
+    }
+
+    private record Entrada(String termino, long id) {
+    }
+
+}
@@ -0,0 +1,197 @@
+package com.andygomez.apirest.main.search;
+
+import com.andygomez.apirest.main.event.EmpleadoCambiadoEvent;
+import com.andygomez.apirest.main.model.Empleado;
+import com.andygomez.apirest.main.repository.EmpleadoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.HashSet;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.locks.StampedLock;
+import java.util.stream.Stream;
+
+/**
+ * Indice email -> id fuera del heap. Solo guarda una huella de 64 bits del email, no el texto, asi
+ * que un acierto hay que confirmarlo contra el empleado (por id, normalmente desde EmpleadoCache);
+ * un fallo con el indice cargado si es definitivo. Se carga al arrancar y se mantiene con los
+ * eventos de escritura de EmpleadoService, como IndiceBusquedaEmpleados.
+ */
+@Component
+@ConditionalOnProperty(name = "empleados.indice-email.habilitado", havingValue = "true", matchIfMissing = true)
+public class IndiceEmail {
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceEmail.class);
+
+    private static final long AUSENTE = TablaLongLong.LIBRE;
+
+    private final StampedLock lock = new StampedLock();
+    private final TablaLongLong porEmail;
+    //id -> huella, para quitar la huella anterior cuando cambia o se borra el email
+    private final TablaLongLong porId;
+    private volatile boolean cargado;
+    //ids borrados mientras se carga, para no indexar la fila que el cursor ya habia leido
+    private final Set<Long> eliminadosDuranteCarga = new HashSet<>();
+    private volatile boolean cargando;
+
+    @Autowired
+    private EmpleadoRepository empleadoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public IndiceEmail(@Value("${empleados.indice-email.capacidad-inicial:1024}") int capacidadInicial) {
+        this.porEmail = new TablaLongLong(capacidadInicial);
+        this.porId = new TablaLongLong(capacidadInicial);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargar() {
+        long inicio = System.nanoTime();
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        transaccion.setReadOnly(true);
+        transaccion.executeWithoutResult(estado -> {
+            try (Stream<Empleado> stream = empleadoRepository.streamAllByOrderByIdAsc()) {
+                cargar(stream.peek(entityManager::detach));
+            }
+        });
+        cargado = true;
+        log.info("Indice de emails cargado con {} empleados en {} ms ({} bytes fuera del heap)",
+                tamano(), (System.nanoTime() - inicio) / 1_000_000, bytesFueraDelHeap());
+    }
+
+    void cargar(Stream<Empleado> stream) {
+        cargando = true;
+        try {
+            stream.forEach(empleado -> indexar(empleado.getId(), empleado.getEmail(), false));
+        } finally {
+            long sello = lock.writeLock();
+            try {
+                cargando = false;
+                eliminadosDuranteCarga.clear();
+            } finally {
+                lock.unlockWrite(sello);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarEmpleado(EmpleadoCambiadoEvent evento) {
+        if (evento.getTipo() == EmpleadoCambiadoEvent.Tipo.ELIMINADO) {
+            eliminar(evento.getId());
+        } else if (evento.getEmpleado().getEmail() != null) {
+            //en una actualizacion parcial sin email la huella no cambia
+            indexar(evento.getId(), evento.getEmpleado().getEmail());
+        }
+    }
+
+    public void indexar(long id, String email) {
+        indexar(id, email, true);
+    }
+
+    public void eliminar(long id) {
+        long sello = lock.writeLock();
+        try {
+            if (cargando) {
+                eliminadosDuranteCarga.add(id);
+            }
+            long huella = porId.quitar(id, AUSENTE);
+            if (huella != AUSENTE && porEmail.obtener(huella, AUSENTE) == id) {
+                porEmail.quitar(huella, AUSENTE);
+            }
+        } finally {
+            lock.unlockWrite(sello);
+        }
+    }
+
+    public OptionalLong buscar(String email) {
+        long huella = huella(email);
+        long sello = lock.tryOptimisticRead();
+        long id = porEmail.obtener(huella, AUSENTE);
+        if (!lock.validate(sello)) {
+            sello = lock.readLock();
+            try {
+                id = porEmail.obtener(huella, AUSENTE);
+            } finally {
+                lock.unlockRead(sello);
+            }
+        }
+        return id == AUSENTE ? OptionalLong.empty() : OptionalLong.of(id);
+    }
+
+    //hasta entonces un fallo no significa que el email no exista
+    public boolean cargado() {
+        return cargado;
+    }
+
+    public int tamano() {
+        long sello = lock.readLock();
+        try {
+            return porId.tamano();
+        } finally {
+            lock.unlockRead(sello);
+        }
+    }
+
+    public long bytesFueraDelHeap() {
+        long sello = lock.readLock();
+        try {
+            return porEmail.bytesFueraDelHeap() + porId.bytesFueraDelHeap();
+        } finally {
+            lock.unlockRead(sello);
+        }
+    }
+
+    //FNV-1a de 64 bits sobre los char, sin pasar a bytes, y mezclado; 0 y MIN_VALUE estan reservados
+    static long huella(String email) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < email.length(); i++) {
+            hash ^= email.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash = TablaLongLong.mezclar(hash);
+        return hash == TablaLongLong.LIBRE || hash == TablaLongLong.BORRADA ? 1 : hash;
+    }
+
+    private void indexar(long id, String email, boolean reemplazar) {
+        long huella = huella(email);
+        long sello = lock.writeLock();
+        try {
+            //la comprobacion va bajo el mismo lock que eliminar para no cruzarse con el borrado del id
+            if (!reemplazar && eliminadosDuranteCarga.contains(id)) {
+                return;
+            }
+            long anterior = porId.obtener(id, AUSENTE);
+            if (anterior != AUSENTE) {
+                //durante la carga, si ya llego un evento para este id ese valor es mas reciente
+                if (!reemplazar) {
+                    return;
+                }
+                if (porEmail.obtener(anterior, AUSENTE) == id) {
+                    porEmail.quitar(anterior, AUSENTE);
+                }
+            }
+            porId.poner(id, huella);
+            porEmail.poner(huella, id);
+        } finally {
+            lock.unlockWrite(sello);
+        }
+    }
+
+}
@@ -0,0 +1,155 @@
+package com.andygomez.apirest.main.search;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Tabla hash long -> long de direccionamiento abierto (sondeo lineal) en un ByteBuffer directo:
+ * 16 bytes por hueco fuera del heap, sin objetos por entrada, asi millones de entradas no
+ * le cuestan nada al GC. Las claves 0 y Long.MIN_VALUE estan reservadas para hueco libre y
+ * borrado. No es thread-safe; IndiceEmail la protege con un StampedLock.
+ */
+public class TablaLongLong {
+
+    public static final long LIBRE = 0L;
+    public static final long BORRADA = Long.MIN_VALUE;
+
+    private static final int BYTES_HUECO = 16;
+    private static final double CARGA_MAXIMA = 0.6;
+
+    private ByteBuffer huecos;
+    private int tamano;
+    //ocupados = entradas vivas + borradas, las borradas tambien alargan los sondeos
+    private int ocupados;
+
+    public TablaLongLong(int capacidadInicial) {
+        this.huecos = reservar(potenciaDeDos(Math.max(16, (int) (capacidadInicial / CARGA_MAXIMA) + 1)));
+    }
+
+    /**
+     * Segura frente a escrituras concurrentes en el sentido de que siempre termina y nunca lee
+     * fuera del buffer; el valor solo es fiable si el StampedLock valida la lectura despues.
+     */
+    public long obtener(long clave, long ausente) {
+        ByteBuffer tabla = huecos;
+        int mascara = tabla.capacity() / BYTES_HUECO - 1;
+        int hueco = (int) mezclar(clave) & mascara;
+        for (int sondeos = 0; sondeos <= mascara; sondeos++) {
+            long actual = tabla.getLong(hueco * BYTES_HUECO);
+            if (actual == clave) {
+                return tabla.getLong(hueco * BYTES_HUECO + 8);
+            }
+            if (actual == LIBRE) {
+                return ausente;
+            }
+            hueco = (hueco + 1) & mascara;
+        }
+        return ausente;
+    }
+
+    public void poner(long clave, long valor) {
+        comprobarClave(clave);
+        if (ocupados + 1 > capacidad() * CARGA_MAXIMA) {
+            //si sobran borradas basta con recolocar en el mismo tamano
+            redimensionar(tamano + 1 > capacidad() * CARGA_MAXIMA / 2 ? capacidad() * 2 : capacidad());
+        }
+        int mascara = capacidad() - 1;
+        int hueco = (int) mezclar(clave) & mascara;
+        int primeraBorrada = -1;
+        while (true) {
+            long actual = huecos.getLong(hueco * BYTES_HUECO);
+            if (actual == clave) {
+                huecos.putLong(hueco * BYTES_HUECO + 8, valor);
+                return;
+            }
+            if (actual == BORRADA && primeraBorrada < 0) {
+                primeraBorrada = hueco;
+            }
+            if (actual == LIBRE) {
+                if (primeraBorrada >= 0) {
+                    hueco = primeraBorrada;
+                } else {
+                    ocupados++;
+                }
+                //primero el valor: un lector optimista que vea la clave ya ve el valor correcto o invalida
+                huecos.putLong(hueco * BYTES_HUECO + 8, valor);
+                huecos.putLong(hueco * BYTES_HUECO, clave);
+                tamano++;
+                return;
+            }
+            hueco = (hueco + 1) & mascara;
+        }
+    }
+
+    public long quitar(long clave, long ausente) {
+        comprobarClave(clave);
+        int mascara = capacidad() - 1;
+        int hueco = (int) mezclar(clave) & mascara;
+        while (true) {
+            long actual = huecos.getLong(hueco * BYTES_HUECO);
+            if (actual == clave) {
+                long valor = huecos.getLong(hueco * BYTES_HUECO + 8);
+                huecos.putLong(hueco * BYTES_HUECO, BORRADA);
+                tamano--;
+                return valor;
+            }
+            if (actual == LIBRE) {
+                return ausente;
+            }
+            hueco = (hueco + 1) & mascara;
+        }
+    }
+
+    public int tamano() {
+        return tamano;
+    }
+
+    public long bytesFueraDelHeap() {
+        return huecos.capacity();
+    }
+
+    private int capacidad() {
+        return huecos.capacity() / BYTES_HUECO;
+    }
+
+    private void redimensionar(int nuevaCapacidad) {
+        ByteBuffer anterior = huecos;
+        huecos = reservar(nuevaCapacidad);
+        tamano = 0;
+        ocupados = 0;
+        for (int i = 0; i < anterior.capacity(); i += BYTES_HUECO) {
+            long clave = anterior.getLong(i);
+            if (clave != LIBRE && clave != BORRADA) {
+                poner(clave, anterior.getLong(i + 8));
+            }
+        }
+    }
+
+    private static ByteBuffer reservar(int capacidad) {
+        if (capacidad > Integer.MAX_VALUE / BYTES_HUECO) {
+            throw new IllegalStateException("La tabla no admite mas de " + Integer.MAX_VALUE / BYTES_HUECO + " huecos");
+        }
+        //allocateDirect ya viene a ceros, es decir, todos los huecos libres
+        return ByteBuffer.allocateDirect(capacidad * BYTES_HUECO);
+    }
+
+    private static int potenciaDeDos(int valor) {
+        return Integer.highestOneBit(valor - 1) << 1;
+    }
+
+    private static void comprobarClave(long clave) {
+        if (clave == LIBRE || clave == BORRADA) {
+            throw new IllegalArgumentException("Clave reservada: " + clave);
+        }
+    }
+
+    //fmix64 de MurmurHash3: los ids consecutivos no acaban en huecos consecutivos
+    static long mezclar(long clave) {
+        clave ^= clave >>> 33;
+        clave *= 0xff51afd7ed558ccdL;
+        clave ^= clave >>> 33;
+        clave *= 0xc4ceb9fe1a85ec53L;
+        clave ^= clave >>> 33;
+        return clave;
+    }
+
+}
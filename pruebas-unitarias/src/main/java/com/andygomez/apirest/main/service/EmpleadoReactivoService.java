@@ -0,0 +1,23 @@
+package com.andygomez.apirest.main.service;
+
+import com.andygomez.apirest.main.model.Empleado;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface EmpleadoReactivoService {
+
+    Mono<Empleado> saveEmpleado(Empleado empleado);
+
+    Flux<Empleado> getAllEmpleado();
+
+    Flux<Empleado> getEmpleadosPaginados(long despuesDeId, int limite);
+
+    Mono<Empleado> getEmpleadoById(Long id);
+
+    Mono<Empleado> updateEmpleado(long id, Empleado datos);
+
+    Mono<Boolean> patchEmpleado(long id, Empleado cambios);
+
+    Mono<Void> deleteEmpleado(Long id);
+
+}
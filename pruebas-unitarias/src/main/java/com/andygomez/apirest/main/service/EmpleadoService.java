@@ -1,9 +1,20 @@
 package com.andygomez.apirest.main.service;
 
+import com.andygomez.apirest.main.dto.OperacionEmpleado;
+import com.andygomez.apirest.main.dto.PaginaEmpleados;
+import com.andygomez.apirest.main.dto.ResultadoOperacion;
+import com.andygomez.apirest.main.dto.ResumenImportacion;
+import com.andygomez.apirest.main.model.CambioEmpleado;
 import com.andygomez.apirest.main.model.Empleado;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 public interface EmpleadoService {
 
@@ -11,10 +22,36 @@ public interface EmpleadoService {
 
     List<Empleado> getAllEmpleado();
 
+    //noModificada recibe la version de la pagina y decide si hace falta leerla
+    PaginaEmpleados<Empleado> getEmpleadosPaginados(long despuesDeId, int limite, Predicate<String> noModificada);
+
+    PaginaEmpleados<Map<String, Object>> proyectarEmpleados(long despuesDeId, int limite, Set<String> campos,
+                                                            Predicate<String> noModificada);
+
+    Optional<Map<String, Object>> proyectarEmpleado(Long id, Set<String> campos);
+
+    void streamEmpleados(Consumer<Empleado> consumidor);
+
     Optional<Empleado> getEmpleadoById(Long id);
 
+    Optional<Empleado> getEmpleadoByEmail(String email);
+
+    List<Empleado> buscarEmpleados(String consulta, int limite);
+
     Empleado updateEmpleado(Empleado empleadoActualizado);
 
+    Optional<Empleado> updateEmpleado(long id, Empleado datos, Long versionEsperada);
+
+    Optional<Empleado> patchEmpleado(long id, Empleado cambios, Long versionEsperada);
+
     void deleteEmpleado(Long id);
 
+    List<CambioEmpleado> getCambios(long desde, int limite);
+
+    CompletableFuture<Long> esperarCambios(long desde);
+
+    void procesarLote(Iterator<OperacionEmpleado> operaciones, Consumer<ResultadoOperacion> consumidor);
+
+    ResumenImportacion importarEmpleados(Iterator<Empleado> empleados);
+
 }
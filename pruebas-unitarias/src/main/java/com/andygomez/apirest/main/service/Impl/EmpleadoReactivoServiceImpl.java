@@ -0,0 +1,134 @@
+package com.andygomez.apirest.main.service.Impl;
+
+import com.andygomez.apirest.main.exception.EmailDuplicadoException;
+import com.andygomez.apirest.main.model.Empleado;
+import com.andygomez.apirest.main.service.EmpleadoReactivoService;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@Profile("reactivo")
+public class EmpleadoReactivoServiceImpl implements EmpleadoReactivoService {
+
+    private static final String COLUMNAS = "id, nombre, apellido, email, version";
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Override
+    public Mono<Empleado> saveEmpleado(Empleado empleado) {
+        return databaseClient.sql("insert into empleados (id, nombre, apellido, email, version) "
+                        + "values (next value for empleados_seq, :nombre, :apellido, :email, 0)")
+                .bind("nombre", empleado.getNombre())
+                .bind("apellido", empleado.getApellido())
+                .bind("email", empleado.getEmail())
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .map(fila -> fila.get("id", Long.class))
+                .one()
+                .map(id -> empleado.toBuilder().id(id).version(0L).build())
+                .onErrorMap(DataIntegrityViolationException.class,
+                        e -> EmailDuplicadoException.esViolacionDeEmail(e) ? new EmailDuplicadoException(empleado.getEmail()) : e);
+    }
+
+    @Override
+    public Flux<Empleado> getAllEmpleado() {
+        return databaseClient.sql("select " + COLUMNAS + " from empleados order by id")
+                .map(EmpleadoReactivoServiceImpl::mapear)
+                .all();
+    }
+
+    @Override
+    public Flux<Empleado> getEmpleadosPaginados(long despuesDeId, int limite) {
+        return databaseClient.sql("select " + COLUMNAS + " from empleados where id > :id order by id limit :limite")
+                .bind("id", despuesDeId)
+                .bind("limite", limite)
+                .map(EmpleadoReactivoServiceImpl::mapear)
+                .all();
+    }
+
+    @Override
+    public Mono<Empleado> getEmpleadoById(Long id) {
+        return databaseClient.sql("select " + COLUMNAS + " from empleados where id = :id")
+                .bind("id", id)
+                .map(EmpleadoReactivoServiceImpl::mapear)
+                .one();
+    }
+
+    @Override
+    public Mono<Empleado> updateEmpleado(long id, Empleado datos) {
+        return databaseClient.sql("update empleados set nombre = :nombre, apellido = :apellido, email = :email, version = version + 1 where id = :id")
+                .bind("nombre", datos.getNombre())
+                .bind("apellido", datos.getApellido())
+                .bind("email", datos.getEmail())
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated()
+                .filter(filas -> filas > 0)
+                .map(filas -> datos.toBuilder().id(id).build())
+                .onErrorMap(DataIntegrityViolationException.class,
+                        e -> EmailDuplicadoException.esViolacionDeEmail(e) ? new EmailDuplicadoException(datos.getEmail()) : e);
+    }
+
+    @Override
+    public Mono<Boolean> patchEmpleado(long id, Empleado cambios) {
+        List<String> asignaciones = new ArrayList<>(3);
+        if(cambios.getNombre() != null){
+            asignaciones.add("nombre = :nombre");
+        }
+        if(cambios.getApellido() != null){
+            asignaciones.add("apellido = :apellido");
+        }
+        if(cambios.getEmail() != null){
+            asignaciones.add("email = :email");
+        }
+        if(asignaciones.isEmpty()){
+            return Mono.error(new IllegalArgumentException("No hay campos para actualizar"));
+        }
+        asignaciones.add("version = version + 1");
+
+        DatabaseClient.GenericExecuteSpec sentencia = databaseClient
+                .sql("update empleados set " + String.join(", ", asignaciones) + " where id = :id")
+                .bind("id", id);
+        if(cambios.getNombre() != null){
+            sentencia = sentencia.bind("nombre", cambios.getNombre());
+        }
+        if(cambios.getApellido() != null){
+            sentencia = sentencia.bind("apellido", cambios.getApellido());
+        }
+        if(cambios.getEmail() != null){
+            sentencia = sentencia.bind("email", cambios.getEmail());
+        }
+        return sentencia.fetch()
+                .rowsUpdated()
+                .map(filas -> filas > 0)
+                .onErrorMap(DataIntegrityViolationException.class,
+                        e -> EmailDuplicadoException.esViolacionDeEmail(e) ? new EmailDuplicadoException(cambios.getEmail()) : e);
+    }
+
+    @Override
+    public Mono<Void> deleteEmpleado(Long id) {
+        return databaseClient.sql("delete from empleados where id = :id")
+                .bind("id", id)
+                .then();
+    }
+
+    private static Empleado mapear(Readable fila) {
+        return Empleado.builder()
+                .id(fila.get("id", Long.class))
+                .nombre(fila.get("nombre", String.class))
+                .apellido(fila.get("apellido", String.class))
+                .email(fila.get("email", String.class))
+                .version(fila.get("version", Long.class))
+                .build();
+    }
+
+}
@@ -1,47 +1,579 @@
 package com.andygomez.apirest.main.service.Impl;
 
-import com.andygomez.apirest.main.exception.ResourceNotFoundException;
+import com.andygomez.apirest.main.cache.EmpleadoCache;
+import com.andygomez.apirest.main.dto.OperacionEmpleado;
+import com.andygomez.apirest.main.dto.PaginaEmpleados;
+import com.andygomez.apirest.main.dto.ResultadoOperacion;
+import com.andygomez.apirest.main.dto.ResumenImportacion;
+import com.andygomez.apirest.main.event.EmpleadoCambiadoEvent;
+import com.andygomez.apirest.main.metrics.EmpleadoMetricas;
+import com.andygomez.apirest.main.exception.EmailDuplicadoException;
+import com.andygomez.apirest.main.exception.VersionConflictoException;
+import com.andygomez.apirest.main.feed.RegistroCambios;
+import com.andygomez.apirest.main.model.CambioEmpleado;
 import com.andygomez.apirest.main.model.Empleado;
+import com.andygomez.apirest.main.repository.CambioEmpleadoRepository;
 import com.andygomez.apirest.main.repository.EmpleadoRepository;
+import com.andygomez.apirest.main.search.IndiceBusquedaEmpleados;
+import com.andygomez.apirest.main.search.IndiceEmail;
 import com.andygomez.apirest.main.service.EmpleadoService;
+import com.andygomez.apirest.main.service.ValidacionEmpleado;
+import com.andygomez.apirest.main.singleflight.CoalescedorLecturas;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+//TimedAspect etiqueta cada metodo publico con class y method
+@Timed(value = EmpleadoMetricas.TIMER_SERVICIO, histogram = true, percentiles = {0.5, 0.95, 0.99})
 @Service
 public class EmpleadoServiceImpl implements EmpleadoService {
 
     @Autowired
     private EmpleadoRepository empleadoRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EmpleadoCache empleadoCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private EmpleadoMetricas empleadoMetricas;
+
+    @Autowired
+    private CambioEmpleadoRepository cambioEmpleadoRepository;
+
+    @Autowired
+    private RegistroCambios registroCambios;
+
+    @Autowired(required = false)
+    private IndiceBusquedaEmpleados indiceBusqueda;
+
+    @Autowired(required = false)
+    private IndiceEmail indiceEmail;
+
+    @Autowired(required = false)
+    private CoalescedorLecturas coalescedor;
+
+    @Value("${empleados.bulk.tamano-lote:500}")
+    private int tamanoLote;
+
+    @Value("${spring.jpa.properties.hibernate.cache.use_second_level_cache:false}")
+    private boolean cacheSegundoNivel;
+
     @Override
+    @Transactional
     public Empleado saveEmpleado(Empleado empleado) {
-        Optional<Empleado> empleadoGuardado = empleadoRepository.findByEmail(empleado.getEmail());
-        if(empleadoGuardado.isPresent()){
-            throw new ResourceNotFoundException("El empleado con ese email ya existe : " + empleado.getEmail());
+        //el duplicado evidente se corta sin ir a la base; el indice unico sigue siendo la garantia
+        if(indiceEmail != null && indiceEmail.cargado() && empleado.getEmail() != null
+                && getEmpleadoByEmail(empleado.getEmail()).isPresent()){
+            throw emailDuplicado(empleado.getEmail());
+        }
+        try {
+            //el id y la version los asigna la base: con un id del cuerpo merge trataria la fila como
+            //separada sin version y fallaria, asi que se persiste una copia sin ellos
+            Empleado empleadoGuardado = empleadoRepository.saveAndFlush(empleado.toBuilder().id(null).version(null).build());
+            eventPublisher.publishEvent(EmpleadoCambiadoEvent.creado(empleadoGuardado));
+            return empleadoGuardado;
+        } catch (DataIntegrityViolationException e) {
+            if(EmailDuplicadoException.esViolacionDeEmail(e)){
+                throw emailDuplicado(empleado.getEmail());
+            }
+            throw e;
         }
-        return empleadoRepository.save(empleado);
     }
 
     @Override
     public List<Empleado> getAllEmpleado() {
-        return empleadoRepository.findAll();
+        return coalescer("getAllEmpleado", List.of(), empleadoRepository::findAll, EmpleadoServiceImpl::copiar);
+    }
+
+    //version y pagina en la misma transaccion, y por tanto en la misma replica; con REPEATABLE_READ
+    //las dos lecturas ven la misma foto y el ETag no puede describir otra pagina que la devuelta.
+    //No se coalesce: una lectura compartida vendria de otra transaccion
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public PaginaEmpleados<Empleado> getEmpleadosPaginados(long despuesDeId, int limite, Predicate<String> noModificada) {
+        String version = versionPagina(despuesDeId, limite);
+        if(noModificada.test(version)){
+            return PaginaEmpleados.noModificada(version);
+        }
+        return new PaginaEmpleados<>(version, empleadoRepository.findByIdGreaterThanOrderByIdAsc(despuesDeId, PageRequest.of(0, limite)));
+    }
+
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public PaginaEmpleados<Map<String, Object>> proyectarEmpleados(long despuesDeId, int limite, Set<String> campos,
+                                                                   Predicate<String> noModificada) {
+        String version = versionPagina(despuesDeId, limite);
+        if(noModificada.test(version)){
+            return PaginaEmpleados.noModificada(version);
+        }
+        return new PaginaEmpleados<>(version, empleadoRepository.proyectarPagina(campos, despuesDeId, limite));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Map<String, Object>> proyectarEmpleado(Long id, Set<String> campos) {
+        return empleadoRepository.proyectarPorId(campos, id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamEmpleados(Consumer<Empleado> consumidor) {
+        try (Stream<Empleado> empleados = empleadoRepository.streamAllByOrderByIdAsc()) {
+            empleados.forEach(empleado -> {
+                consumidor.accept(empleado);
+                //se libera del contexto de persistencia para que la memoria no crezca con la tabla
+                entityManager.detach(empleado);
+            });
+        }
     }
 
     @Override
     public Optional<Empleado> getEmpleadoById(Long id) {
-        return empleadoRepository.findById(id);
+        //el cargador de Caffeine ya junta las lecturas simultaneas del mismo id
+        if(empleadoCache.isHabilitado()){
+            return empleadoCache.obtener(id, empleadoRepository::findById);
+        }
+        return coalescer("getEmpleadoById", id, () -> empleadoRepository.findById(id), EmpleadoServiceImpl::copiar);
     }
 
     @Override
+    public Optional<Empleado> getEmpleadoByEmail(String email) {
+        if(indiceEmail == null || !indiceEmail.cargado()){
+            return buscarPorEmail(email);
+        }
+        OptionalLong id = indiceEmail.buscar(email);
+        if(id.isEmpty()){
+            return Optional.empty();
+        }
+        //el indice solo guarda una huella del email: se confirma con el empleado, casi siempre desde la cache
+        Optional<Empleado> empleado = getEmpleadoById(id.getAsLong());
+        if(empleado.isPresent() && email.equals(empleado.get().getEmail())){
+            return empleado;
+        }
+        return buscarPorEmail(email);
+    }
+
+    @Override
+    public List<Empleado> buscarEmpleados(String consulta, int limite) {
+        if(indiceBusqueda != null){
+            return indiceBusqueda.buscar(consulta, limite);
+        }
+        String prefijo = consulta.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return empleadoRepository.buscarPorPrefijo(prefijo + "%", PageRequest.of(0, limite));
+    }
+
+    private String versionPagina(long despuesDeId, int limite) {
+        EmpleadoRepository.ResumenPagina resumen = empleadoRepository.resumirPagina(despuesDeId, limite);
+        return resumen.getTotal() + "-" + resumen.getMaximo() + "-" + resumen.getSumaIds() + "-" + resumen.getSumaVersiones();
+    }
+
+    @Override
+    @Transactional
     public Empleado updateEmpleado(Empleado empleadoActualizado) {
-        return empleadoRepository.save(empleadoActualizado);
+        try {
+            Empleado empleadoGuardado = empleadoRepository.saveAndFlush(empleadoActualizado);
+            eventPublisher.publishEvent(EmpleadoCambiadoEvent.actualizado(empleadoGuardado));
+            return empleadoGuardado;
+        } catch (DataIntegrityViolationException e) {
+            if(EmailDuplicadoException.esViolacionDeEmail(e)){
+                throw emailDuplicado(empleadoActualizado.getEmail());
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    @Transactional
+    public Optional<Empleado> updateEmpleado(long id, Empleado datos, Long versionEsperada) {
+        Optional<Empleado> empleadoActualizado = cacheSegundoNivel
+                ? modificar(id, versionEsperada, datos.getEmail(), empleado -> {
+                    empleado.setNombre(datos.getNombre());
+                    empleado.setApellido(datos.getApellido());
+                    empleado.setEmail(datos.getEmail());
+                })
+                : actualizarConSentencia(id, versionEsperada, datos, () -> empleadoRepository.actualizarEmpleado(
+                        id, datos.getNombre(), datos.getApellido(), datos.getEmail(), versionEsperada));
+        empleadoActualizado.ifPresent(empleado -> eventPublisher.publishEvent(EmpleadoCambiadoEvent.actualizado(empleado)));
+        return empleadoActualizado;
     }
 
     @Override
+    @Transactional
+    public Optional<Empleado> patchEmpleado(long id, Empleado cambios, Long versionEsperada) {
+        if(cambios.getNombre() == null && cambios.getApellido() == null && cambios.getEmail() == null){
+            throw new IllegalArgumentException("No hay campos para actualizar");
+        }
+        Optional<Empleado> empleadoModificado = cacheSegundoNivel
+                ? modificar(id, versionEsperada, cambios.getEmail(), empleado -> {
+                    if(cambios.getNombre() != null){
+                        empleado.setNombre(cambios.getNombre());
+                    }
+                    if(cambios.getApellido() != null){
+                        empleado.setApellido(cambios.getApellido());
+                    }
+                    if(cambios.getEmail() != null){
+                        empleado.setEmail(cambios.getEmail());
+                    }
+                })
+                : actualizarConSentencia(id, versionEsperada, cambios,
+                        () -> empleadoRepository.actualizarParcial(id, cambios, versionEsperada));
+        //el evento es parcial, como el PATCH: los campos null no cambiaron
+        empleadoModificado.ifPresent(empleado -> eventPublisher.publishEvent(
+                EmpleadoCambiadoEvent.actualizado(cambios.toBuilder().id(id).version(empleado.getVersion()).build())));
+        return empleadoModificado;
+    }
+
+    //sin cache de segundo nivel basta un UPDATE con la comprobacion de version en el WHERE
+    private Optional<Empleado> actualizarConSentencia(long id, Long versionEsperada, Empleado datos, IntSupplier sentencia) {
+        try {
+            if(sentencia.getAsInt() == 0){
+                return noActualizado(id, versionEsperada);
+            }
+        } catch (DataIntegrityViolationException e) {
+            if(EmailDuplicadoException.esViolacionDeEmail(e)){
+                throw emailDuplicado(datos.getEmail());
+            }
+            throw e;
+        }
+        return Optional.of(datos.toBuilder().id(id).version(nuevaVersion(versionEsperada)).build());
+    }
+
+    private <T> Optional<T> noActualizado(long id, Long versionEsperada) {
+        if(versionEsperada != null && empleadoRepository.existsById(id)){
+            throw new VersionConflictoException(id);
+        }
+        return Optional.empty();
+    }
+
+    private static Long nuevaVersion(Long versionEsperada) {
+        //con If-Match la version resultante se conoce sin volver a leer la fila; sin If-Match
+        //se devuelve null y la respuesta sale sin ETag en lugar de pagar un SELECT extra
+        return versionEsperada != null ? versionEsperada + 1 : null;
+    }
+
+    //con la cache de segundo nivel se cambia la entidad gestionada: un UPDATE JPQL o Criteria vaciaria
+    //toda la region. La lectura sale de la cache caliente, READ_WRITE solo sustituye esta entrada y
+    //@DynamicUpdate solo escribe las columnas que cambian
+    private Optional<Empleado> modificar(long id, Long versionEsperada, String email, Consumer<Empleado> cambios) {
+        Optional<Empleado> encontrado = empleadoRepository.findById(id);
+        if(encontrado.isEmpty()){
+            return Optional.empty();
+        }
+        Empleado empleado = encontrado.get();
+        if(versionEsperada != null && !versionEsperada.equals(empleado.getVersion())){
+            throw new VersionConflictoException(id);
+        }
+        cambios.accept(empleado);
+        try {
+            empleadoRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            if(EmailDuplicadoException.esViolacionDeEmail(e)){
+                throw emailDuplicado(email);
+            }
+            throw e;
+        } catch (OptimisticLockingFailureException e) {
+            //otra peticion la modifico entre la lectura y el flush
+            throw new VersionConflictoException(id);
+        }
+        return Optional.of(empleado);
+    }
+
+    @Override
+    @Transactional
     public void deleteEmpleado(Long id) {
-        empleadoRepository.deleteById(id);
+        //sin fila no hay cambio que registrar; findById sale de la cache de segundo nivel
+        empleadoRepository.findById(id).ifPresent(empleado -> {
+            empleadoRepository.delete(empleado);
+            eventPublisher.publishEvent(EmpleadoCambiadoEvent.eliminado(id));
+        });
     }
+
+    @Override
+    public List<CambioEmpleado> getCambios(long desde, int limite) {
+        long hasta = registroCambios.horizonte();
+        if(hasta <= desde){
+            return List.of();
+        }
+        return cambioEmpleadoRepository.findBySeqGreaterThanAndSeqLessThanEqualOrderBySeqAsc(desde, hasta, PageRequest.of(0, limite));
+    }
+
+    @Override
+    public CompletableFuture<Long> esperarCambios(long desde) {
+        //sin transaccion ni hilo: el long-poll no retiene una conexion mientras espera
+        return registroCambios.esperar(desde);
+    }
+
+    @Override
+    public void procesarLote(Iterator<OperacionEmpleado> operaciones, Consumer<ResultadoOperacion> consumidor) {
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        List<OperacionEmpleado> lote = new ArrayList<>(tamanoLote);
+        int indice = 0;
+        while (operaciones.hasNext()) {
+            lote.add(operaciones.next());
+            if (lote.size() == tamanoLote) {
+                procesarTrozo(transaccion, lote, indice).forEach(consumidor);
+                indice += lote.size();
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            procesarTrozo(transaccion, lote, indice).forEach(consumidor);
+        }
+    }
+
+    @Override
+    public ResumenImportacion importarEmpleados(Iterator<Empleado> empleados) {
+        long inicio = System.nanoTime();
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        ResumenImportacion resumen = new ResumenImportacion();
+        List<Empleado> trozo = new ArrayList<>(tamanoLote);
+        long fila = 0;
+        while (true) {
+            Empleado empleado;
+            try {
+                if (!empleados.hasNext()) {
+                    break;
+                }
+                empleado = empleados.next();
+            } catch (RuntimeException e) {
+                //fichero mal formado: no se puede saber donde empieza la siguiente fila
+                resumen.setAbortada("Fila " + (fila + 1) + ": " + e.getMessage());
+                break;
+            }
+            fila++;
+            trozo.add(empleado);
+            if (trozo.size() == tamanoLote) {
+                importarTrozo(transaccion, trozo, fila - trozo.size() + 1, resumen);
+                trozo.clear();
+            }
+        }
+        if (!trozo.isEmpty()) {
+            importarTrozo(transaccion, trozo, fila - trozo.size() + 1, resumen);
+        }
+        long duracion = System.nanoTime() - inicio;
+        resumen.setLeidas(fila);
+        resumen.setDuracionMs(Duration.ofNanos(duracion).toMillis());
+        resumen.setFilasPorSegundo(duracion == 0 ? 0 : fila * 1e9 / duracion);
+        return resumen;
+    }
+
+    //valida y descarta emails repetidos (en el propio trozo o ya guardados) antes de escribir, asi el
+    //trozo casi nunca cae en el reintento elemento a elemento de procesarTrozo
+    private void importarTrozo(TransactionTemplate transaccion, List<Empleado> trozo, long primeraFila, ResumenImportacion resumen) {
+        Set<String> emails = new HashSet<>();
+        List<Long> filas = new ArrayList<>(trozo.size());
+        List<OperacionEmpleado> operaciones = new ArrayList<>(trozo.size());
+        for (int i = 0; i < trozo.size(); i++) {
+            Empleado empleado = trozo.get(i);
+            long fila = primeraFila + i;
+            if (!ValidacionEmpleado.esCompleto(empleado)) {
+                resumen.setInvalidas(resumen.getInvalidas() + 1);
+                resumen.rechazar(fila, empleado.getEmail(), HttpStatus.BAD_REQUEST.value(), "nombre, apellido y email son obligatorios");
+            } else if (!emails.add(empleado.getEmail())) {
+                resumen.setDuplicadas(resumen.getDuplicadas() + 1);
+                resumen.rechazar(fila, empleado.getEmail(), HttpStatus.CONFLICT.value(), "Email repetido en el fichero");
+            } else {
+                filas.add(fila);
+                operaciones.add(OperacionEmpleado.builder().op(OperacionEmpleado.Tipo.UPSERT).empleado(empleado).build());
+            }
+        }
+        if (operaciones.isEmpty()) {
+            return;
+        }
+        Set<String> existentes = new HashSet<>(empleadoRepository.buscarEmailsExistentes(emails));
+        List<Long> filasNuevas = new ArrayList<>(operaciones.size());
+        List<OperacionEmpleado> nuevas = new ArrayList<>(operaciones.size());
+        for (int i = 0; i < operaciones.size(); i++) {
+            String email = operaciones.get(i).getEmpleado().getEmail();
+            if (existentes.contains(email)) {
+                empleadoMetricas.registrarEmailDuplicado();
+                resumen.setDuplicadas(resumen.getDuplicadas() + 1);
+                resumen.rechazar(filas.get(i), email, HttpStatus.CONFLICT.value(), "El empleado con ese email ya existe");
+            } else {
+                filasNuevas.add(filas.get(i));
+                nuevas.add(operaciones.get(i));
+            }
+        }
+        if (nuevas.isEmpty()) {
+            return;
+        }
+        List<ResultadoOperacion> resultados = procesarTrozo(transaccion, nuevas, 0);
+        for (ResultadoOperacion resultado : resultados) {
+            if (resultado.getStatus() == HttpStatus.CREATED.value()) {
+                resumen.setInsertadas(resumen.getInsertadas() + 1);
+                continue;
+            }
+            //un alta concurrente con el mismo email puede llegar entre la consulta y la escritura
+            if (resultado.getStatus() == HttpStatus.CONFLICT.value()) {
+                resumen.setDuplicadas(resumen.getDuplicadas() + 1);
+            } else {
+                resumen.setErrores(resumen.getErrores() + 1);
+            }
+            resumen.rechazar(filasNuevas.get(resultado.getIndice()), nuevas.get(resultado.getIndice()).getEmpleado().getEmail(),
+                    resultado.getStatus(), resultado.getError());
+        }
+    }
+
+    private List<ResultadoOperacion> procesarTrozo(TransactionTemplate transaccion, List<OperacionEmpleado> lote, int indiceInicial) {
+        try {
+            return transaccion.execute(estado -> aplicarTrozo(lote, indiceInicial));
+        } catch (DataIntegrityViolationException e) {
+            //el trozo completo se revierte, se reintenta elemento a elemento para aislar los que fallan
+            List<ResultadoOperacion> resultados = new ArrayList<>(lote.size());
+            for (int i = 0; i < lote.size(); i++) {
+                OperacionEmpleado operacion = lote.get(i);
+                int indice = indiceInicial + i;
+                try {
+                    resultados.addAll(transaccion.execute(estado -> aplicarTrozo(List.of(operacion), indice)));
+                } catch (DataIntegrityViolationException ex) {
+                    String error = operacion.getEmpleado() != null && EmailDuplicadoException.esViolacionDeEmail(ex)
+                            ? emailDuplicado(operacion.getEmpleado().getEmail()).getMessage()
+                            : "Violacion de integridad de datos";
+                    resultados.add(ResultadoOperacion.error(indice, operacion, HttpStatus.CONFLICT, error));
+                }
+            }
+            return resultados;
+        }
+    }
+
+    private List<ResultadoOperacion> aplicarTrozo(List<OperacionEmpleado> lote, int indiceInicial) {
+        Set<Long> ids = lote.stream()
+                .map(OperacionEmpleado::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Empleado> existentes = empleadoRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Empleado::getId, Function.identity()));
+
+        List<ResultadoOperacion> resultados = new ArrayList<>(lote.size());
+        List<EmpleadoCambiadoEvent> eventos = new ArrayList<>(lote.size());
+        for (int i = 0; i < lote.size(); i++) {
+            resultados.add(aplicarOperacion(lote.get(i), indiceInicial + i, existentes, eventos));
+        }
+        empleadoRepository.flush();
+        //despues del flush, para que los eventos lleven la version ya incrementada; el segundo flush
+        //escribe las filas de empleados_cambios antes de vaciar el contexto
+        eventos.forEach(eventPublisher::publishEvent);
+        empleadoRepository.flush();
+        entityManager.clear();
+        return resultados;
+    }
+
+    private ResultadoOperacion aplicarOperacion(OperacionEmpleado operacion, int indice, Map<Long, Empleado> existentes,
+                                                List<EmpleadoCambiadoEvent> eventos) {
+        if (operacion.getOp() == null) {
+            return ResultadoOperacion.error(indice, operacion, HttpStatus.BAD_REQUEST, "La operacion es obligatoria");
+        }
+        switch (operacion.getOp()) {
+            case UPSERT: {
+                Empleado datos = operacion.getEmpleado();
+                if (!ValidacionEmpleado.esCompleto(datos)) {
+                    return ResultadoOperacion.error(indice, operacion, HttpStatus.BAD_REQUEST, "nombre, apellido y email son obligatorios");
+                }
+                Empleado existente = operacion.getId() == null ? null : existentes.get(operacion.getId());
+                if (existente == null) {
+                    //sin id o con un id que no existe se inserta; el id lo asigna la secuencia, no el cliente.
+                    //se persiste una copia para no reutilizar una instancia que haya quedado con id tras un rollback
+                    Empleado nuevo = empleadoRepository.save(Empleado.builder()
+                            .nombre(datos.getNombre())
+                            .apellido(datos.getApellido())
+                            .email(datos.getEmail())
+                            .build());
+                    eventos.add(EmpleadoCambiadoEvent.creado(nuevo));
+                    return ResultadoOperacion.exito(indice, operacion, nuevo.getId(), HttpStatus.CREATED);
+                }
+                existente.setNombre(datos.getNombre());
+                existente.setApellido(datos.getApellido());
+                existente.setEmail(datos.getEmail());
+                eventos.add(EmpleadoCambiadoEvent.actualizado(existente));
+                return ResultadoOperacion.exito(indice, operacion, existente.getId(), HttpStatus.OK);
+            }
+            case DELETE: {
+                Empleado existente = operacion.getId() == null ? null : existentes.remove(operacion.getId());
+                if (existente == null) {
+                    return ResultadoOperacion.error(indice, operacion, HttpStatus.NOT_FOUND, "Empleado no encontrado");
+                }
+                empleadoRepository.delete(existente);
+                eventos.add(EmpleadoCambiadoEvent.eliminado(existente.getId()));
+                return ResultadoOperacion.exito(indice, operacion, existente.getId(), HttpStatus.OK);
+            }
+            default:
+                return ResultadoOperacion.error(indice, operacion, HttpStatus.BAD_REQUEST, "Operacion no soportada");
+        }
+    }
+
+    private Optional<Empleado> buscarPorEmail(String email) {
+        return coalescer("getEmpleadoByEmail", email, () -> empleadoRepository.findByEmail(email), EmpleadoServiceImpl::copiar);
+    }
+
+    //las llamadas iguales y simultaneas comparten una sola consulta; dentro de una transaccion de
+    //escritura no, la lectura tiene que ver los cambios aun sin confirmar de esa transaccion
+    private <T> T coalescer(String operacion, Object parametros, Supplier<T> lectura, UnaryOperator<T> copia) {
+        if(coalescedor == null || (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly())){
+            return lectura.get();
+        }
+        return coalescedor.ejecutar(operacion, parametros, lectura, copia);
+    }
+
+    private static Optional<Empleado> copiar(Optional<Empleado> empleado) {
+        return empleado.map(original -> original.toBuilder().build());
+    }
+
+    private static List<Empleado> copiar(List<Empleado> empleados) {
+        return empleados.stream()
+                .map(original -> original.toBuilder().build())
+                .collect(Collectors.toList());
+    }
+
+    private EmailDuplicadoException emailDuplicado(String email) {
+        empleadoMetricas.registrarEmailDuplicado();
+        return new EmailDuplicadoException(email);
+    }
+
 }
@@ -0,0 +1,24 @@
+package com.andygomez.apirest.main.service;
+
+import com.andygomez.apirest.main.model.Empleado;
+
+public final class ValidacionEmpleado {
+
+    private ValidacionEmpleado() {
+    }
+
+    //alta o reemplazo completo: nombre, apellido y email son obligatorios
+    public static boolean esCompleto(Empleado empleado) {
+        return empleado != null
+                && empleado.getNombre() != null
+                && empleado.getApellido() != null
+                && empleado.getEmail() != null;
+    }
+
+    //actualizacion parcial: al menos un campo a cambiar
+    public static boolean tieneCambios(Empleado empleado) {
+        return empleado != null
+                && (empleado.getNombre() != null || empleado.getApellido() != null || empleado.getEmail() != null);
+    }
+
+}
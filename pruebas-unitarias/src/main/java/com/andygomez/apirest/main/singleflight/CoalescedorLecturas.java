@@ -0,0 +1,90 @@
+package com.andygomez.apirest.main.singleflight;
+
+import com.andygomez.apirest.main.event.EmpleadoCambiadoEvent;
+import com.andygomez.apirest.main.metrics.EmpleadoMetricas;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Single-flight para lecturas de EmpleadoService: mientras hay una consulta en curso para una
+ * operacion y unos parametros, las llamadas iguales que llegan esperan su resultado en vez de
+ * lanzar otra. Solo se comparten consultas en curso, nada queda guardado al terminar; y tras
+ * cada escritura confirmada las nuevas llamadas ya no se unen a las consultas empezadas antes.
+ */
+@Component
+@ConditionalOnProperty(name = "empleados.coalescencia.habilitada", havingValue = "true", matchIfMissing = true)
+public class CoalescedorLecturas {
+
+    private final ConcurrentMap<Clave, CompletableFuture<Object>> enVuelo = new ConcurrentHashMap<>();
+    private final EmpleadoMetricas empleadoMetricas;
+
+    @Autowired
+    public CoalescedorLecturas(EmpleadoMetricas empleadoMetricas) {
+        this.empleadoMetricas = empleadoMetricas;
+        empleadoMetricas.medirLecturasEnVuelo(enVuelo);
+    }
+
+    /**
+     * Ejecuta la lectura o se une a la que ya esta en curso con la misma clave. Quien se une
+     * recibe el resultado pasado por copia, porque la instancia original es de quien consulto.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T ejecutar(String operacion, Object parametros, Supplier<T> lectura, UnaryOperator<T> copia) {
+        Clave clave = new Clave(operacion, parametros);
+        CompletableFuture<Object> propia = new CompletableFuture<>();
+        CompletableFuture<Object> enCurso = enVuelo.putIfAbsent(clave, propia);
+        if (enCurso != null) {
+            empleadoMetricas.registrarLecturaCoalescible(operacion, true);
+            return copia.apply((T) esperar(enCurso));
+        }
+        empleadoMetricas.registrarLecturaCoalescible(operacion, false);
+        try {
+            T resultado = lectura.get();
+            propia.complete(resultado);
+            return resultado;
+        } catch (RuntimeException | Error e) {
+            propia.completeExceptionally(e);
+            throw e;
+        } finally {
+            enVuelo.remove(clave, propia);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alCambiarEmpleado(EmpleadoCambiadoEvent evento) {
+        //las consultas en curso siguen y entregan a quien ya espera; las llamadas nuevas consultan de nuevo
+        enVuelo.clear();
+    }
+
+    public int enVuelo() {
+        return enVuelo.size();
+    }
+
+    private static Object esperar(CompletableFuture<Object> enCurso) {
+        try {
+            return enCurso.join();
+        } catch (CompletionException e) {
+            //misma excepcion que recibio quien consulto
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            if (e.getCause() instanceof Error causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    private record Clave(String operacion, Object parametros) {
+    }
+
+}
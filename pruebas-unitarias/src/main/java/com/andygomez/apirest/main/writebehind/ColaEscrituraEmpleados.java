@@ -0,0 +1,172 @@
+package com.andygomez.apirest.main.writebehind;
+
+import com.andygomez.apirest.main.dto.EstadoEscritura;
+import com.andygomez.apirest.main.dto.OperacionEmpleado;
+import com.andygomez.apirest.main.model.Empleado;
+import com.andygomez.apirest.main.service.EmpleadoService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Escritura diferida de altas de empleados. POST /api/empleados encola y responde 202 con un
+ * id de seguimiento; un hilo escritor vacia la cola en lotes con EmpleadoService.procesarLote,
+ * una transaccion por lote. Si la cola esta llena no se encola (el controlador responde 429).
+ * Al cerrar el contexto deja de aceptar, despues de que el servidor web haya parado, y escribe
+ * lo que quede antes de que se cierre el pool de conexiones.
+ */
+@Component
+@ConditionalOnProperty(name = "empleados.escritura-diferida.habilitada", havingValue = "true")
+public class ColaEscrituraEmpleados implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ColaEscrituraEmpleados.class);
+
+    private final EmpleadoService empleadoService;
+    private final BlockingQueue<Pendiente> cola;
+    private final int tamanoLote;
+    private final Duration esperaCierre;
+    private final Cache<UUID, EstadoEscritura> estados;
+    //lectura al encolar, escritura al dejar de aceptar: tras stop() no entra nada que el escritor no vaya a ver
+    private final ReadWriteLock cerrojo = new ReentrantReadWriteLock();
+
+    private volatile boolean aceptando;
+    private Thread escritor;
+
+    @Autowired
+    public ColaEscrituraEmpleados(EmpleadoService empleadoService,
+                                  @Value("${empleados.escritura-diferida.capacidad:10000}") int capacidad,
+                                  @Value("${empleados.escritura-diferida.tamano-lote:500}") int tamanoLote,
+                                  @Value("${empleados.escritura-diferida.retencion-estado:10m}") Duration retencionEstado,
+                                  @Value("${empleados.escritura-diferida.espera-cierre:30s}") Duration esperaCierre) {
+        this.empleadoService = empleadoService;
+        this.cola = new ArrayBlockingQueue<>(capacidad);
+        this.tamanoLote = tamanoLote;
+        this.esperaCierre = esperaCierre;
+        this.estados = Caffeine.newBuilder()
+                .expireAfterWrite(retencionEstado)
+                .build();
+    }
+
+    public Optional<EstadoEscritura> encolar(Empleado empleado) {
+        UUID seguimiento = UUID.randomUUID();
+        EstadoEscritura estado = EstadoEscritura.pendiente(seguimiento);
+        cerrojo.readLock().lock();
+        try {
+            if (!aceptando) {
+                return Optional.empty();
+            }
+            //el estado se publica antes de encolar para que el escritor nunca lo pise con PENDIENTE
+            estados.put(seguimiento, estado);
+            if (!cola.offer(new Pendiente(seguimiento, empleado))) {
+                estados.invalidate(seguimiento);
+                return Optional.empty();
+            }
+            return Optional.of(estado);
+        } finally {
+            cerrojo.readLock().unlock();
+        }
+    }
+
+    public Optional<EstadoEscritura> estado(UUID seguimiento) {
+        return Optional.ofNullable(estados.getIfPresent(seguimiento));
+    }
+
+    public int pendientes() {
+        return cola.size();
+    }
+
+    @Override
+    public void start() {
+        aceptando = true;
+        escritor = Thread.ofPlatform().name("escritura-diferida-empleados").start(this::escribir);
+    }
+
+    @Override
+    public void stop() {
+        cerrojo.writeLock().lock();
+        try {
+            aceptando = false;
+        } finally {
+            cerrojo.writeLock().unlock();
+        }
+        try {
+            escritor.join(esperaCierre.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (escritor.isAlive() || !cola.isEmpty()) {
+            log.warn("Se cerro la escritura diferida con {} empleados sin escribir", cola.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return aceptando;
+    }
+
+    //por debajo del servidor web: arranca antes que el y se detiene despues
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void escribir() {
+        List<Pendiente> lote = new ArrayList<>(tamanoLote);
+        while (aceptando || !cola.isEmpty()) {
+            try {
+                Pendiente primero = cola.poll(100, TimeUnit.MILLISECONDS);
+                if (primero == null) {
+                    continue;
+                }
+                lote.add(primero);
+                cola.drainTo(lote, tamanoLote - 1);
+                escribirLote(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Fallo la escritura diferida de un lote de {} empleados", lote.size(), e);
+                lote.forEach(pendiente -> estados.asMap().computeIfPresent(pendiente.seguimiento(),
+                        (seguimiento, estado) -> estado.getEstado() == EstadoEscritura.Estado.PENDIENTE
+                                ? EstadoEscritura.fallida(seguimiento, "Error interno al escribir el lote")
+                                : estado));
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    private void escribirLote(List<Pendiente> lote) {
+        List<OperacionEmpleado> operaciones = lote.stream()
+                .map(pendiente -> OperacionEmpleado.builder()
+                        .op(OperacionEmpleado.Tipo.UPSERT)
+                        .empleado(pendiente.empleado())
+                        .build())
+                .toList();
+        empleadoService.procesarLote(operaciones.iterator(), resultado -> {
+            UUID seguimiento = lote.get(resultado.getIndice()).seguimiento();
+            estados.put(seguimiento, EstadoEscritura.de(seguimiento, resultado));
+        });
+    }
+
+    private record Pendiente(UUID seguimiento, Empleado empleado) {
+    }
+
+}
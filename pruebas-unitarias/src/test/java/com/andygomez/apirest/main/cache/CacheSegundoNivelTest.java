@@ -0,0 +1,208 @@
+package com.andygomez.apirest.main.cache;
+
+import com.andygomez.apirest.main.exception.VersionConflictoException;
+import com.andygomez.apirest.main.model.Empleado;
+import com.andygomez.apirest.main.repository.EmpleadoRepository;
+import com.andygomez.apirest.main.service.EmpleadoService;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import jakarta.persistence.EntityManagerFactory;
+import javax.cache.Caching;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+//sin la cache de EmpleadoCache ni el indice de emails, todas las lecturas llegan a Hibernate
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cachel2;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+        "empleados.cache.habilitado=false",
+        "empleados.indice-email.habilitado=false"
+})
+class CacheSegundoNivelTest {
+
+    private static final int LECTURAS = 10;
+
+    @Autowired
+    private EmpleadoService empleadoService;
+
+    @Autowired
+    private EmpleadoRepository empleadoRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estadisticas;
+
+    private Empleado empleado;
+
+    @BeforeEach
+    void setup(){
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        empleado = empleadoService.saveEmpleado(Empleado.builder()
+                .nombre("Andy")
+                .apellido("Gomez")
+                .email("l2@a.a")
+                .build());
+        //el insert ya deja el empleado en la cache; se vacia para medir desde una cache fria
+        entityManagerFactory.getCache().evictAll();
+        estadisticas.clear();
+    }
+
+    @AfterEach
+    void limpiar(){
+        empleadoRepository.deleteAll();
+    }
+
+    @DisplayName("Test para leer por id desde la cache de segundo nivel")
+    @Test
+    void testLecturaPorIdCacheada(){
+        //when
+        for (int i = 0; i < LECTURAS; i++) {
+            assertThat(empleadoService.getEmpleadoById(empleado.getId())).isPresent();
+        }
+
+        //then
+        CacheRegionStatistics region = estadisticas.getDomainDataRegionStatistics(Empleado.REGION_CACHE);
+        assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(region.getMissCount()).isEqualTo(1);
+        assertThat(region.getHitCount()).isEqualTo(LECTURAS - 1);
+        assertThat(proporcionAciertos(region.getHitCount(), region.getMissCount())).isGreaterThanOrEqualTo(0.9);
+    }
+
+    @DisplayName("Test para leer por email desde la cache de consultas")
+    @Test
+    void testLecturaPorEmailCacheada(){
+        //when
+        for (int i = 0; i < LECTURAS; i++) {
+            assertThat(empleadoService.getEmpleadoByEmail("l2@a.a")).isPresent();
+        }
+
+        //then
+        assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(estadisticas.getQueryCacheMissCount()).isEqualTo(1);
+        assertThat(estadisticas.getQueryCacheHitCount()).isEqualTo(LECTURAS - 1);
+        assertThat(proporcionAciertos(estadisticas.getQueryCacheHitCount(), estadisticas.getQueryCacheMissCount()))
+                .isGreaterThanOrEqualTo(0.9);
+    }
+
+    @DisplayName("Test para ver los cambios de updateEmpleado en las dos caches")
+    @Test
+    void testActualizarMantieneLasCachesConsistentes(){
+        //given
+        Empleado empleadoLeido = empleadoService.getEmpleadoById(empleado.getId()).get();
+        empleadoService.getEmpleadoByEmail("l2@a.a");
+
+        //when
+        empleadoLeido.setNombre("Raul");
+        empleadoService.updateEmpleado(empleadoLeido);
+        long sentenciasTrasActualizar = estadisticas.getPrepareStatementCount();
+        long fallosConsultaTrasActualizar = estadisticas.getQueryCacheMissCount();
+
+        //then
+        //read-write deja la version nueva en la cache al confirmar, sin volver a la base
+        assertThat(empleadoService.getEmpleadoById(empleado.getId()).get().getNombre()).isEqualTo("Raul");
+        assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(sentenciasTrasActualizar);
+
+        //la escritura en la tabla invalida los resultados cacheados de findByEmail
+        assertThat(empleadoService.getEmpleadoByEmail("l2@a.a").get().getNombre()).isEqualTo("Raul");
+        assertThat(estadisticas.getQueryCacheMissCount()).isEqualTo(fallosConsultaTrasActualizar + 1);
+    }
+
+    @DisplayName("Test para actualizar por id sin vaciar la region del resto de empleados")
+    @Test
+    void testActualizarPorIdSoloSustituyeSuEntrada(){
+        //given
+        Empleado otro = empleadoService.saveEmpleado(Empleado.builder()
+                .nombre("Ana")
+                .apellido("Ruiz")
+                .email("otro@a.a")
+                .build());
+        Empleado empleadoLeido = empleadoService.getEmpleadoById(empleado.getId()).get();
+        empleadoService.getEmpleadoById(otro.getId());
+        CacheRegionStatistics region = estadisticas.getDomainDataRegionStatistics(Empleado.REGION_CACHE);
+        long fallosPrevios = region.getMissCount();
+
+        //when
+        Empleado datos = Empleado.builder().nombre("Raul").apellido("Lopez").email("l2@a.a").build();
+        Empleado empleadoActualizado = empleadoService.updateEmpleado(empleado.getId(), datos, empleadoLeido.getVersion()).get();
+        empleadoService.patchEmpleado(otro.getId(), Empleado.builder().apellido("Diaz").build(), null);
+        long sentenciasTrasActualizar = estadisticas.getPrepareStatementCount();
+
+        //then
+        //un UPDATE masivo habria vaciado la region y las dos lecturas volverian a la base
+        assertThat(empleadoActualizado.getVersion()).isEqualTo(empleadoLeido.getVersion() + 1);
+        assertThat(empleadoService.getEmpleadoById(empleado.getId()).get().getNombre()).isEqualTo("Raul");
+        assertThat(empleadoService.getEmpleadoById(otro.getId()).get().getApellido()).isEqualTo("Diaz");
+        assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(sentenciasTrasActualizar);
+        assertThat(region.getMissCount()).isEqualTo(fallosPrevios);
+    }
+
+    @DisplayName("Test para actualizar por id con una sola sentencia cuando la cache esta caliente")
+    @Test
+    void testActualizarPorIdUnaSentenciaConCacheCaliente(){
+        //given
+        Empleado empleadoLeido = empleadoService.getEmpleadoById(empleado.getId()).get();
+        estadisticas.clear();
+
+        //when
+        empleadoService.patchEmpleado(empleado.getId(), Empleado.builder().apellido("Lopez").build(), empleadoLeido.getVersion());
+
+        //then
+        //la lectura de la entidad sale de la region y del empleado solo llega a la base el UPDATE
+        //(la fila del feed de cambios se inserta aparte en la misma transaccion)
+        assertThat(estadisticas.getEntityStatistics(Empleado.class.getName()).getFetchCount()).isZero();
+        assertThat(estadisticas.getDomainDataRegionStatistics(Empleado.REGION_CACHE).getMissCount()).isZero();
+        assertThat(estadisticas.getEntityStatistics(Empleado.class.getName()).getUpdateCount()).isEqualTo(1);
+    }
+
+    @DisplayName("Test para rechazar la actualizacion por id con una version obsoleta")
+    @Test
+    void testActualizarPorIdVersionObsoleta(){
+        //given
+        Empleado datos = Empleado.builder().nombre("Raul").apellido("Lopez").email("l2@a.a").build();
+        long version = empleadoService.updateEmpleado(empleado.getId(), datos, null).get().getVersion();
+
+        //when
+        assertThrows(VersionConflictoException.class, () -> {
+            empleadoService.patchEmpleado(empleado.getId(), Empleado.builder().nombre("Ana").build(), version - 1);
+        });
+
+        //then
+        assertThat(empleadoService.getEmpleadoById(empleado.getId()).get().getNombre()).isEqualTo("Raul");
+    }
+
+    @DisplayName("Test para no compartir la cache de segundo nivel con otros contextos de la JVM")
+    @Test
+    void testCacheManagerPropioDelContexto(){
+        //when
+        JCacheRegionFactory regionFactory = (JCacheRegionFactory) entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getCache().getRegionFactory();
+
+        //then
+        assertThat(regionFactory.getCacheManager())
+                .isNotSameAs(Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager());
+        //las regiones siguen tomando la configuracion de application.conf
+        assertThat(regionFactory.getCacheManager().getCache(Empleado.REGION_CACHE)
+                .getConfiguration(CaffeineConfiguration.class).getMaximumSize()).hasValue(10_000);
+    }
+
+    private static double proporcionAciertos(long aciertos, long fallos){
+        return (double) aciertos / (aciertos + fallos);
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.andygomez.apirest.main.cache;
+
+import com.andygomez.apirest.main.model.Empleado;
+import com.andygomez.apirest.main.repository.EmpleadoRepository;
+import com.andygomez.apirest.main.service.EmpleadoService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import jakarta.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cache;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "empleados.cache.habilitado=true"
+})
+class EmpleadoCacheTest {
+
+    @Autowired
+    private EmpleadoService empleadoService;
+
+    @Autowired
+    private EmpleadoRepository empleadoRepository;
+
+    @Autowired
+    private EmpleadoCache empleadoCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estadisticas;
+
+    private Empleado empleado;
+
+    @BeforeEach
+    void setup(){
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        empleado = empleadoService.saveEmpleado(Empleado.builder()
+                .nombre("Andy")
+                .apellido("Gomez")
+                .email("a@a.a")
+                .build());
+        empleadoCache.invalidarTodo();
+        estadisticas.clear();
+    }
+
+    @AfterEach
+    void limpiar(){
+        empleadoRepository.deleteAll();
+        empleadoCache.invalidarTodo();
+    }
+
+    @DisplayName("Test para leer dos veces un empleado con una sola consulta")
+    @Test
+    void testLecturaRepetidaSinSqlExtra(){
+        //given
+        empleadoService.getEmpleadoById(empleado.getId());
+        long sentenciasPrimeraLectura = estadisticas.getPrepareStatementCount();
+        long aciertosPrevios = empleadoCache.estadisticas().hitCount();
+
+        //when
+        Empleado empleadoCacheado = empleadoService.getEmpleadoById(empleado.getId()).get();
+
+        //then
+        assertThat(sentenciasPrimeraLectura).isEqualTo(1);
+        assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(sentenciasPrimeraLectura);
+        assertThat(empleadoCache.estadisticas().hitCount()).isEqualTo(aciertosPrevios + 1);
+        assertThat(empleadoCacheado.getEmail()).isEqualTo("a@a.a");
+    }
+
+    @DisplayName("Test para cachear por un tiempo los empleados inexistentes")
+    @Test
+    void testLecturaNegativaCacheada(){
+        //when
+        empleadoService.getEmpleadoById(999999L);
+        empleadoService.getEmpleadoById(999999L);
+
+        //then
+        assertThat(empleadoService.getEmpleadoById(999999L)).isEmpty();
+        assertThat(estadisticas.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @DisplayName("Test para invalidar la cache al actualizar y eliminar")
+    @Test
+    void testInvalidacionAlEscribir(){
+        //given
+        Empleado empleadoLeido = empleadoService.getEmpleadoById(empleado.getId()).get();
+
+        //when
+        empleadoLeido.setNombre("Raul");
+        empleadoService.updateEmpleado(empleadoLeido);
+
+        //then
+        assertThat(empleadoService.getEmpleadoById(empleado.getId()).get().getNombre()).isEqualTo("Raul");
+
+        //when
+        empleadoService.deleteEmpleado(empleado.getId());
+
+        //then
+        assertThat(empleadoService.getEmpleadoById(empleado.getId())).isEmpty();
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.andygomez.apirest.main.carga;
+
+import com.andygomez.apirest.main.PruebasUnitariasApplication;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * La aplicacion arrancada en otra JVM con el classpath de las pruebas, para medir lo que dentro
+ * de la JVM de surefire no se puede: el heap maximo o el tiempo de arranque desde cero.
+ */
+final class AplicacionExterna implements AutoCloseable {
+
+    private final Process proceso;
+    private final int puerto;
+    private final long inicio;
+
+    private AplicacionExterna(Process proceso, int puerto, long inicio) {
+        this.proceso = proceso;
+        this.puerto = puerto;
+        this.inicio = inicio;
+    }
+
+    static AplicacionExterna arrancar(Path log, List<String> opcionesJvm, String... propiedades) throws IOException {
+        int puerto;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            puerto = socket.getLocalPort();
+        }
+        List<String> comando = new ArrayList<>();
+        comando.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        comando.addAll(opcionesJvm);
+        comando.addAll(List.of("-cp", System.getProperty("java.class.path"), PruebasUnitariasApplication.class.getName()));
+        comando.add("--server.port=" + puerto);
+        for (String propiedad : propiedades) {
+            comando.add("--" + propiedad);
+        }
+        long inicio = System.nanoTime();
+        Process proceso = new ProcessBuilder(comando)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        return new AplicacionExterna(proceso, puerto, inicio);
+    }
+
+    URI uri(String ruta) {
+        return URI.create("http://localhost:" + puerto + ruta);
+    }
+
+    boolean viva() {
+        return proceso.isAlive();
+    }
+
+    /**
+     * Repite la peticion hasta que responde 200 y devuelve el tiempo desde que se lanzo la JVM.
+     */
+    Duration esperar(HttpClient cliente, String ruta, Duration limite) throws InterruptedException {
+        HttpRequest peticion = HttpRequest.newBuilder(uri(ruta)).build();
+        long fin = System.nanoTime() + limite.toNanos();
+        while (System.nanoTime() < fin) {
+            if (!proceso.isAlive()) {
+                throw new AssertionError("la aplicacion termino al arrancar");
+            }
+            try {
+                if (cliente.send(peticion, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return Duration.ofNanos(System.nanoTime() - inicio);
+                }
+            } catch (IOException e) {
+                //todavia no escucha
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("la aplicacion no respondio a " + ruta);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        proceso.destroy();
+        proceso.waitFor();
+    }
+
+}
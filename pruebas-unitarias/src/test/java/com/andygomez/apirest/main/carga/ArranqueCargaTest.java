@@ -0,0 +1,60 @@
+package com.andygomez.apirest.main.carga;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Mide el tiempo hasta la primera peticion servida por GET /api/empleados arrancando la aplicacion
+ * en una JVM nueva, con la configuracion por defecto y con el perfil arranque. El archivo CDS y AOT
+ * necesitan el jar empaquetado y se miden fuera, con {@code mvn -Parranque -DskipTests package}.
+ * Se ejecuta con {@code mvn test -Pcarga}.
+ */
+@Tag("carga")
+class ArranqueCargaTest {
+
+    private static final int REPETICIONES = 3;
+
+    @TempDir
+    Path directorio;
+
+    @DisplayName("Test de carga: tiempo hasta la primera peticion con y sin el perfil arranque")
+    @Test
+    void testCompararArranque() throws Exception {
+        //given
+        HttpClient cliente = HttpClient.newHttpClient();
+
+        //when
+        Duration normal = medir(cliente, "default");
+        Duration rapido = medir(cliente, "arranque");
+
+        //then
+        System.out.println("Primera peticion sin perfil:        " + normal.toMillis() + " ms");
+        System.out.println("Primera peticion perfil arranque:   " + rapido.toMillis() + " ms");
+        assertThat(rapido).isLessThan(normal);
+    }
+
+    //la mejor de varias para quitar el ruido de la cache de disco y del JIT
+    private Duration medir(HttpClient cliente, String perfil) throws Exception {
+        Duration mejor = null;
+        for (int i = 0; i < REPETICIONES; i++) {
+            try (AplicacionExterna aplicacion = AplicacionExterna.arrancar(directorio.resolve(perfil + "-" + i + ".log"), List.of(),
+                    "spring.profiles.active=" + perfil,
+                    "spring.datasource.url=jdbc:h2:mem:arranque;DB_CLOSE_DELAY=-1",
+                    "empleados.limite.habilitado=false")) {
+                Duration tiempo = aplicacion.esperar(cliente, "/api/empleados", Duration.ofMinutes(2));
+                mejor = mejor == null || tiempo.compareTo(mejor) < 0 ? tiempo : mejor;
+            }
+        }
+        return mejor;
+    }
+
+}
@@ -0,0 +1,96 @@
+package com.andygomez.apirest.main.carga;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Generador de carga en lazo cerrado: {@code concurrencia} clientes envian peticiones
+ * una tras otra durante {@code duracion} y se registra la latencia de cada una.
+ */
+final class GeneradorCarga {
+
+    private GeneradorCarga() {
+    }
+
+    static Resultado ejecutar(Supplier<URI> uris, int concurrencia, Duration duracion) throws Exception {
+        HttpClient cliente = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        AtomicLong errores = new AtomicLong();
+        long fin = System.nanoTime() + duracion.toNanos();
+        long inicio = System.nanoTime();
+
+        List<Future<long[]>> clientes = new ArrayList<>(concurrencia);
+        try (ExecutorService ejecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrencia; i++) {
+                clientes.add(ejecutor.submit(() -> {
+                    long[] latencias = new long[1024];
+                    int cantidad = 0;
+                    while (System.nanoTime() < fin) {
+                        long antes = System.nanoTime();
+                        HttpResponse<Void> respuesta = cliente.send(HttpRequest.newBuilder(uris.get()).GET().build(),
+                                HttpResponse.BodyHandlers.discarding());
+                        if (respuesta.statusCode() >= 400) {
+                            errores.incrementAndGet();
+                        }
+                        if (cantidad == latencias.length) {
+                            latencias = Arrays.copyOf(latencias, cantidad * 2);
+                        }
+                        latencias[cantidad++] = System.nanoTime() - antes;
+                    }
+                    return Arrays.copyOf(latencias, cantidad);
+                }));
+            }
+        }
+        long transcurrido = System.nanoTime() - inicio;
+
+        List<long[]> parciales = new ArrayList<>(concurrencia);
+        int total = 0;
+        for (Future<long[]> futuro : clientes) {
+            long[] parcial = futuro.get();
+            parciales.add(parcial);
+            total += parcial.length;
+        }
+        long[] todas = new long[total];
+        int posicion = 0;
+        for (long[] parcial : parciales) {
+            System.arraycopy(parcial, 0, todas, posicion, parcial.length);
+            posicion += parcial.length;
+        }
+        Arrays.sort(todas);
+        return new Resultado(todas.length, errores.get(), transcurrido, todas);
+    }
+
+    record Resultado(long peticiones, long errores, long nanos, long[] latenciasOrdenadas) {
+
+        double peticionesPorSegundo() {
+            return peticiones * 1_000_000_000d / nanos;
+        }
+
+        double percentilMs(double percentil) {
+            if (latenciasOrdenadas.length == 0) {
+                return 0;
+            }
+            int posicion = (int) Math.min(latenciasOrdenadas.length - 1, Math.ceil(percentil * latenciasOrdenadas.length) - 1);
+            return latenciasOrdenadas[Math.max(0, posicion)] / 1_000_000d;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d peticiones, %d errores, %.1f req/s, p50 %.1f ms, p99 %.1f ms",
+                    peticiones, errores, peticionesPorSegundo(), percentilMs(0.50), percentilMs(0.99));
+        }
+    }
+
+}
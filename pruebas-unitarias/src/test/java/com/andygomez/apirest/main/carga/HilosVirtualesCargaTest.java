@@ -0,0 +1,70 @@
+package com.andygomez.apirest.main.carga;
+
+import com.andygomez.apirest.main.PruebasUnitariasApplication;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compara el pool de hilos de plataforma de Tomcat con el modo de hilos virtuales
+ * cuando cada peticion bloquea en una consulta lenta. Se ejecuta con {@code mvn test -Pcarga}.
+ */
+@Tag("carga")
+class HilosVirtualesCargaTest {
+
+    private static final int EMPLEADOS = 1000;
+    private static final int CONCURRENCIA = 400;
+    private static final Duration DURACION = Duration.ofSeconds(15);
+
+    @DisplayName("Test de carga: hilos virtuales frente a hilos de plataforma con consultas lentas")
+    @Test
+    void testCompararHilosVirtuales() throws Exception {
+        //given
+        GeneradorCarga.Resultado plataforma = medir(false);
+        GeneradorCarga.Resultado virtuales = medir(true);
+
+        //then
+        System.out.println("Hilos de plataforma: " + plataforma);
+        System.out.println("Hilos virtuales:     " + virtuales);
+        assertThat(virtuales.errores()).isZero();
+        assertThat(virtuales.peticionesPorSegundo()).isGreaterThan(plataforma.peticionesPorSegundo() * 1.5);
+    }
+
+    private GeneradorCarga.Resultado medir(boolean hilosVirtuales) throws Exception {
+        try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(PruebasUnitariasApplication.class, LatenciaJdbc.class)
+                .profiles(hilosVirtuales ? "virtual" : "default")
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:carga-virtual-" + hilosVirtuales + ";DB_CLOSE_DELAY=-1",
+                        "server.port=0",
+                        "server.tomcat.threads.max=50",
+                        "empleados.pool.maximo-conexiones=" + (CONCURRENCIA + 50),
+                        "empleados.cache.habilitado=false",
+                        //la cache de segundo nivel tambien ocultaria el coste de la base de datos
+                        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                        "empleados.busqueda.habilitada=false",
+                        "empleados.limite.habilitado=false",
+                        "logging.level.root=WARN")
+                .run()) {
+            contexto.getBean(JdbcTemplate.class).update("insert into empleados (id, nombre, apellido, email, version) "
+                    + "select x, 'Nombre' || x, 'Apellido' || x, 'e' || x || '@empresa.com', 0 from system_range(1, ?)", EMPLEADOS);
+            String base = "http://localhost:" + contexto.getEnvironment().getProperty("local.server.port") + "/api/empleados/";
+
+            //when
+            GeneradorCarga.ejecutar(() -> URI.create(base + 1), CONCURRENCIA, Duration.ofSeconds(3));
+            return GeneradorCarga.ejecutar(
+                    () -> URI.create(base + ThreadLocalRandom.current().nextInt(1, EMPLEADOS + 1)),
+                    CONCURRENCIA, DURACION);
+        }
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.andygomez.apirest.main.carga;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Simula una base de datos remota lenta: cada ejecucion de sentencia espera {@code latencia}
+ * fuera de H2, bloqueando el hilo de la peticion igual que lo haria la red.
+ * Se registra como fuente de SpringApplicationBuilder, no se detecta por escaneo.
+ */
+class LatenciaJdbc {
+
+    static Duration latencia = Duration.ofMillis(50);
+
+    @Bean
+    static BeanPostProcessor latenciaJdbcPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    return proxy(DataSource.class, dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> tipo, T destino) {
+        return (T) Proxy.newProxyInstance(LatenciaJdbc.class.getClassLoader(), new Class<?>[]{tipo},
+                (instancia, metodo, argumentos) -> {
+                    if (metodo.getName().startsWith("execute")) {
+                        Thread.sleep(latencia.toMillis());
+                    }
+                    Object resultado = invocar(metodo, destino, argumentos);
+                    if (resultado instanceof Connection conexion && metodo.getReturnType() == Connection.class) {
+                        return proxy(Connection.class, conexion);
+                    }
+                    if (resultado instanceof PreparedStatement sentencia && metodo.getReturnType() == PreparedStatement.class) {
+                        return proxy(PreparedStatement.class, sentencia);
+                    }
+                    if (resultado instanceof Statement sentencia && metodo.getReturnType() == Statement.class) {
+                        return proxy(Statement.class, sentencia);
+                    }
+                    return resultado;
+                });
+    }
+
+    private static Object invocar(Method metodo, Object destino, Object[] argumentos) throws Throwable {
+        try {
+            return metodo.invoke(destino, argumentos);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+}
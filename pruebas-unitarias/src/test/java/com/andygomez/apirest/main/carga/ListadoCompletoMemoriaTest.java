@@ -0,0 +1,88 @@
+package com.andygomez.apirest.main.carga;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Lista un millon de empleados con GET /api/empleados?all=true contra una aplicacion arrancada en
+ * otra JVM con un heap mucho menor que el JSON de la respuesta: solo termina si la lista se escribe
+ * por trozos desde el cursor. La base de datos es H2 en fichero para que la tabla no ocupe ese heap.
+ * Se ejecuta con {@code mvn test -Pcarga}.
+ */
+@Tag("carga")
+class ListadoCompletoMemoriaTest {
+
+    private static final int EMPLEADOS = 1_000_000;
+    private static final String HEAP = "-Xmx128m";
+
+    @TempDir
+    Path directorio;
+
+    @DisplayName("Test de carga: listar un millon de empleados comprimidos con un heap pequeno")
+    @Test
+    void testListarUnMillonConHeapPequeno() throws Exception {
+        //given
+        //AUTO_SERVER deja cargar los datos desde aqui mientras la aplicacion tiene abierto el fichero
+        String url = "jdbc:h2:file:" + directorio.resolve("empleados") + ";AUTO_SERVER=TRUE;LAZY_QUERY_EXECUTION=1";
+        HttpClient cliente = HttpClient.newHttpClient();
+        try (AplicacionExterna aplicacion = AplicacionExterna.arrancar(directorio.resolve("aplicacion.log"), List.of(HEAP),
+                "spring.datasource.url=" + url,
+                "spring.jpa.hibernate.ddl-auto=create",
+                "spring.mvc.async.request-timeout=10m",
+                "empleados.cache.habilitado=false",
+                //la cache de segundo nivel tambien ocultaria el coste de la base de datos
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                "empleados.busqueda.habilitada=false",
+                "empleados.limite.habilitado=false",
+                "logging.level.root=WARN")) {
+            aplicacion.esperar(cliente, "/actuator/health", Duration.ofMinutes(2));
+            try (Connection conexion = DriverManager.getConnection(url, "root", "root");
+                 Statement sentencia = conexion.createStatement()) {
+                sentencia.executeUpdate("insert into empleados (id, nombre, apellido, email, version) "
+                        + "select x, 'Nombre' || x, 'Apellido' || x, 'e' || x || '@empresa.com', 0 from system_range(1, " + EMPLEADOS + ")");
+            }
+
+            //when
+            HttpResponse<InputStream> respuesta = cliente.send(HttpRequest.newBuilder(aplicacion.uri("/api/empleados?all=true"))
+                    .header("Accept-Encoding", "gzip")
+                    .timeout(Duration.ofMinutes(10))
+                    .build(), HttpResponse.BodyHandlers.ofInputStream());
+            long empleados = 0;
+            try (JsonParser parser = new JsonFactory().createParser(new GZIPInputStream(respuesta.body()))) {
+                assertThat(parser.nextToken()).isEqualTo(JsonToken.START_ARRAY);
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    empleados++;
+                }
+            }
+
+            //then
+            assertThat(respuesta.statusCode()).isEqualTo(200);
+            assertThat(respuesta.headers().firstValue("Content-Encoding")).hasValue("gzip");
+            assertThat(respuesta.headers().firstValue("Content-Length")).isEmpty();
+            assertThat(empleados).isEqualTo(EMPLEADOS);
+            assertThat(aplicacion.viva()).isTrue();
+        }
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.andygomez.apirest.main.carga;
+
+import com.andygomez.apirest.main.PruebasUnitariasApplication;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Barre tamanos de pool con la misma carga y consultas lentas, imprime un informe y senala
+ * la rodilla: el tamano mas pequeno que ya da al menos el 90% del mejor throughput.
+ * Se ejecuta con {@code mvn test -Pcarga}; los tamanos se cambian con -Dcarga.pool.tamanos=2,4,8.
+ */
+@Tag("carga")
+class TamanoPoolCargaTest {
+
+    private static final int EMPLEADOS = 1000;
+    private static final int CONCURRENCIA = 64;
+    private static final Duration DURACION = Duration.ofSeconds(8);
+    private static final double FRACCION_RODILLA = 0.9;
+
+    @DisplayName("Test de carga: throughput por tamano de pool y rodilla de la curva")
+    @Test
+    void testBarrerTamanosDePool() throws Exception {
+        //given
+        int[] tamanos = Arrays.stream(System.getProperty("carga.pool.tamanos", "1,2,4,8,16,32,64").split(","))
+                .map(String::trim)
+                .mapToInt(Integer::parseInt)
+                .toArray();
+
+        //when
+        Map<Integer, GeneradorCarga.Resultado> resultados = new LinkedHashMap<>();
+        for (int tamano : tamanos) {
+            resultados.put(tamano, medir(tamano));
+        }
+
+        //then
+        double mejor = resultados.values().stream().mapToDouble(GeneradorCarga.Resultado::peticionesPorSegundo).max().orElse(0);
+        int rodilla = resultados.entrySet().stream()
+                .filter(entrada -> entrada.getValue().peticionesPorSegundo() >= mejor * FRACCION_RODILLA)
+                .mapToInt(Map.Entry::getKey)
+                .findFirst()
+                .orElseThrow();
+
+        System.out.println("Tamano de pool con " + CONCURRENCIA + " clientes y " + LatenciaJdbc.latencia.toMillis() + " ms por consulta:");
+        resultados.forEach((tamano, resultado) -> System.out.printf("  %3d conexiones: %s%s%n",
+                tamano, resultado, tamano == rodilla ? "  <- rodilla" : ""));
+
+        assertThat(resultados.values()).allSatisfy(resultado -> assertThat(resultado.errores()).isZero());
+        assertThat(rodilla).isGreaterThan(tamanos[0]);
+    }
+
+    private GeneradorCarga.Resultado medir(int tamanoPool) throws Exception {
+        try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(PruebasUnitariasApplication.class, LatenciaJdbc.class)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:carga-pool-" + tamanoPool + ";DB_CLOSE_DELAY=-1",
+                        "server.port=0",
+                        "empleados.pool.maximo-conexiones=" + tamanoPool,
+                        "empleados.pool.minimo-inactivas=" + tamanoPool,
+                        //en el barrido interesa el throughput, no que los pools pequenos fallen por timeout
+                        "empleados.pool.timeout-conexion=60s",
+                        "empleados.cache.habilitado=false",
+                        //la cache de segundo nivel tambien ocultaria el coste de la base de datos
+                        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                        "empleados.busqueda.habilitada=false",
+                        "empleados.limite.habilitado=false",
+                        "logging.level.root=WARN")
+                .run()) {
+            contexto.getBean(JdbcTemplate.class).update("insert into empleados (id, nombre, apellido, email, version) "
+                    + "select x, 'Nombre' || x, 'Apellido' || x, 'e' || x || '@empresa.com', 0 from system_range(1, ?)", EMPLEADOS);
+            String base = "http://localhost:" + contexto.getEnvironment().getProperty("local.server.port") + "/api/empleados/";
+
+            GeneradorCarga.ejecutar(() -> URI.create(base + 1), CONCURRENCIA, Duration.ofSeconds(2));
+            return GeneradorCarga.ejecutar(
+                    () -> URI.create(base + ThreadLocalRandom.current().nextInt(1, EMPLEADOS + 1)),
+                    CONCURRENCIA, DURACION);
+        }
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.andygomez.apirest.main.config;
+
+import com.andygomez.apirest.main.metrics.ContadorSentencias;
+import com.andygomez.apirest.main.model.Empleado;
+import com.andygomez.apirest.main.repository.EmpleadoRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.data.repository.Repository;
+import org.springframework.transaction.interceptor.TransactionalProxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmpleadoRuntimeHintsTest {
+
+    @DisplayName("Test para registrar las pistas de reflexion y de proxies de Empleado y EmpleadoRepository")
+    @Test
+    void testRegistrarPistas(){
+        //given
+        RuntimeHints hints = new RuntimeHints();
+
+        //when
+        new EmpleadoRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        //then
+        assertThat(RuntimeHintsPredicates.reflection().onType(Empleado.class)
+                .withMemberCategories(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.DECLARED_FIELDS))
+                .accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(ContadorSentencias.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS))
+                .accepts(hints);
+        assertThat(RuntimeHintsPredicates.proxies().forInterfaces(AopProxyUtils.completeJdkProxyInterfaces(
+                EmpleadoRepository.class, Repository.class, TransactionalProxy.class)))
+                .accepts(hints);
+    }
+
+}
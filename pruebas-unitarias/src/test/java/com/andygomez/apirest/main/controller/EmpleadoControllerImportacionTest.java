@@ -0,0 +1,122 @@
+package com.andygomez.apirest.main.controller;
+
+import com.andygomez.apirest.main.model.Empleado;
+import com.andygomez.apirest.main.repository.EmpleadoRepository;
+import com.andygomez.apirest.main.service.EmpleadoService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:importacion;DB_CLOSE_DELAY=-1",
+        "empleados.bulk.tamano-lote=100",
+        "empleados.limite.habilitado=false"
+})
+@AutoConfigureMockMvc
+class EmpleadoControllerImportacionTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EmpleadoService empleadoService;
+
+    @Autowired
+    private EmpleadoRepository empleadoRepository;
+
+    @AfterEach
+    void limpiar(){
+        empleadoRepository.deleteAll();
+    }
+
+    @DisplayName("Test para importar un CSV por trozos descartando filas invalidas y emails repetidos")
+    @Test
+    void testImportarCsv() throws Exception{
+        //given
+        empleadoService.saveEmpleado(Empleado.builder().nombre("Previo").apellido("Previo").email("previo@a.a").build());
+        StringBuilder csv = new StringBuilder("email,nombre,apellido\n");
+        for (int i = 1; i <= 250; i++) {
+            csv.append("imp").append(i).append("@a.a,Nombre").append(i).append(",Apellido").append(i).append('\n');
+        }
+        csv.append(",SinEmail,Apellido\n");
+        csv.append("imp1@a.a,Repetido,Apellido\n");
+        csv.append("previo@a.a,Previo,Otra vez\n");
+
+        //when
+        mockMvc.perform(post("/api/empleados/import")
+                        .contentType(EmpleadoController.TEXT_CSV_VALUE)
+                        .content(csv.toString()))
+                //then
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.leidas", is(253)))
+                .andExpect(jsonPath("$.insertadas", is(250)))
+                .andExpect(jsonPath("$.duplicadas", is(2)))
+                .andExpect(jsonPath("$.invalidas", is(1)))
+                .andExpect(jsonPath("$.errores", is(0)))
+                .andExpect(jsonPath("$.rechazos.size()", is(3)))
+                .andExpect(jsonPath("$.rechazos[0].fila", is(251)))
+                .andExpect(jsonPath("$.rechazos[0].status", is(400)))
+                .andExpect(jsonPath("$.rechazos[2].email", is("previo@a.a")));
+        assertThat(empleadoRepository.count()).isEqualTo(251);
+    }
+
+    @DisplayName("Test para importar NDJSON y abortar con 400 en la primera fila mal formada")
+    @Test
+    void testImportarNdjsonMalFormado() throws Exception{
+        //given
+        String ndjson = "{\"nombre\":\"Andy\",\"apellido\":\"Gomez\",\"email\":\"nd1@a.a\"}\n"
+                + "{\"nombre\":\"Raul\",\"apellido\":\"Lopez\",\"email\":\"nd2@a.a\"}\n"
+                + "{\"nombre\":\n";
+
+        //when
+        mockMvc.perform(post("/api/empleados/import")
+                        .contentType(EmpleadoController.APPLICATION_NDJSON_VALUE)
+                        .content(ndjson))
+                //then
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.leidas", is(2)))
+                .andExpect(jsonPath("$.insertadas", is(2)))
+                .andExpect(jsonPath("$.abortada", startsWith("Fila 3")));
+    }
+
+    @DisplayName("Test para exportar todos los empleados en CSV con cabecera")
+    @Test
+    void testExportarCsv() throws Exception{
+        //given
+        for (int i = 1; i <= 3; i++) {
+            empleadoService.saveEmpleado(Empleado.builder().nombre("Nombre" + i).apellido("Apellido" + i).email("exp" + i + "@a.a").build());
+        }
+
+        //when
+        MvcResult resultado = mockMvc.perform(get("/api/empleados/export").accept(EmpleadoController.TEXT_CSV_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String csv = mockMvc.perform(asyncDispatch(resultado))
+                //then
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"empleados.csv\""))
+                .andReturn().getResponse().getContentAsString();
+        String[] lineas = csv.split("\n");
+        assertThat(lineas).hasSize(4);
+        assertThat(lineas[0]).isEqualTo("id,nombre,apellido,email,version");
+        assertThat(lineas[1]).contains(",Nombre1,Apellido1,exp1@a.a,0");
+    }
+
+}
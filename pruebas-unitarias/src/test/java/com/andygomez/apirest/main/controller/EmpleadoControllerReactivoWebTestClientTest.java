@@ -0,0 +1,13 @@
+package com.andygomez.apirest.main.controller;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+@ActiveProfiles("reactivo")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:reactivo;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactivo?options=DB_CLOSE_DELAY=-1"
+})
+public class EmpleadoControllerReactivoWebTestClientTest extends EmpleadoControllerWebTestClientTest {
+
+}
@@ -7,21 +7,42 @@ import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.BDDMockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 
+import com.andygomez.apirest.main.dto.OperacionEmpleado;
+import com.andygomez.apirest.main.dto.PaginaEmpleados;
+import com.andygomez.apirest.main.dto.ResultadoOperacion;
+import com.andygomez.apirest.main.exception.EmailDuplicadoException;
+import com.andygomez.apirest.main.exception.VersionConflictoException;
+import com.andygomez.apirest.main.event.EmpleadoCambiadoEvent;
+import com.andygomez.apirest.main.model.CambioEmpleado;
 import com.andygomez.apirest.main.model.Empleado;
 import com.andygomez.apirest.main.service.EmpleadoService;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.io.ByteArrayOutputStream;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -62,6 +83,117 @@ class EmpleadoControllerTest {
                 .andExpect(jsonPath("$.email",is(empleado.getEmail())));
     }
 
+    @Test
+    void testGuardarEmpleadoEmailDuplicado() throws Exception {
+        //given
+        Empleado empleado = Empleado.builder()
+                .nombre("Christian")
+                .apellido("Ramirez")
+                .email("c1@gmail.com")
+                .build();
+        given(empleadoService.saveEmpleado(any(Empleado.class)))
+                .willThrow(new EmailDuplicadoException(empleado.getEmail()));
+
+        //when
+        ResultActions response = mockMvc.perform(post("/api/empleados")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(empleado)));
+
+        //then
+        response.andDo(print())
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void testProcesarLote() throws Exception {
+        //given
+        List<OperacionEmpleado> operaciones = List.of(
+                OperacionEmpleado.builder()
+                        .op(OperacionEmpleado.Tipo.UPSERT)
+                        .empleado(Empleado.builder().nombre("Paco").apellido("Cantu").email("p@p.p").build())
+                        .build(),
+                OperacionEmpleado.builder().op(OperacionEmpleado.Tipo.DELETE).id(7L).build());
+        willAnswer(invocation -> {
+            Iterator<OperacionEmpleado> recibidas = invocation.getArgument(0);
+            Consumer<ResultadoOperacion> consumidor = invocation.getArgument(1);
+            consumidor.accept(ResultadoOperacion.exito(0, recibidas.next(), 1L, HttpStatus.CREATED));
+            consumidor.accept(ResultadoOperacion.error(1, recibidas.next(), HttpStatus.NOT_FOUND, "Empleado no encontrado"));
+            return null;
+        }).given(empleadoService).procesarLote(any(), any());
+
+        //when
+        ResultActions response = mockMvc.perform(post("/api/empleados/_bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(operaciones)));
+
+        //then
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.size()",is(2)))
+                .andExpect(jsonPath("$[0].op",is("upsert")))
+                .andExpect(jsonPath("$[0].status",is(201)))
+                .andExpect(jsonPath("$[1].id",is(7)))
+                .andExpect(jsonPath("$[1].status",is(404)));
+    }
+
+    @Test
+    void testProcesarLoteNdjson() throws Exception {
+        //given
+        willAnswer(invocation -> {
+            Iterator<OperacionEmpleado> recibidas = invocation.getArgument(0);
+            Consumer<ResultadoOperacion> consumidor = invocation.getArgument(1);
+            int indice = 0;
+            while (recibidas.hasNext()) {
+                consumidor.accept(ResultadoOperacion.exito(indice++, recibidas.next(), 1L, HttpStatus.OK));
+            }
+            return null;
+        }).given(empleadoService).procesarLote(any(), any());
+
+        //when
+        ResultActions response = mockMvc.perform(post("/api/empleados/_bulk")
+                .contentType(EmpleadoController.APPLICATION_NDJSON_VALUE)
+                .content("{\"op\":\"delete\",\"id\":1}\n{\"op\":\"delete\",\"id\":2}\n"));
+
+        //then
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.size()",is(2)))
+                .andExpect(jsonPath("$[1].indice",is(1)))
+                .andExpect(jsonPath("$[1].op",is("delete")));
+    }
+
+    @Test
+    void testProcesarLoteCbor() throws Exception {
+        //given
+        ObjectMapper cborMapper = objectMapper.copyWith(new CBORFactory());
+        willAnswer(invocation -> {
+            Iterator<OperacionEmpleado> recibidas = invocation.getArgument(0);
+            Consumer<ResultadoOperacion> consumidor = invocation.getArgument(1);
+            int indice = 0;
+            while (recibidas.hasNext()) {
+                consumidor.accept(ResultadoOperacion.exito(indice++, recibidas.next(), 1L, HttpStatus.OK));
+            }
+            return null;
+        }).given(empleadoService).procesarLote(any(), any());
+        ByteArrayOutputStream cuerpo = new ByteArrayOutputStream();
+        try (SequenceWriter writer = cborMapper.writer().writeValues(cuerpo)) {
+            writer.write(Map.of("op", "delete", "id", 1));
+            writer.write(Map.of("op", "delete", "id", 2));
+        }
+
+        //when
+        ResultActions response = mockMvc.perform(post("/api/empleados/_bulk")
+                .contentType(EmpleadoController.APPLICATION_CBOR_SEQ_VALUE)
+                .content(cuerpo.toByteArray()));
+
+        //then
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.size()",is(2)))
+                .andExpect(jsonPath("$[1].indice",is(1)))
+                .andExpect(jsonPath("$[1].op",is("delete")));
+    }
+
     @Test
     void testListarEmpleados() throws Exception{
         //given
@@ -71,7 +203,7 @@ class EmpleadoControllerTest {
         listaEmpleados.add(Empleado.builder().nombre("Pedro").apellido("Roblez").email("p@r.p").build());
         listaEmpleados.add(Empleado.builder().nombre("Uriel").apellido("Perez").email("u@p.p").build());
         listaEmpleados.add(Empleado.builder().nombre("Rodolfo").apellido("Epifanio").email("r@e.p").build());
-        given(empleadoService.getAllEmpleado()).willReturn(listaEmpleados);
+        given(empleadoService.getEmpleadosPaginados(eq(0L), eq(100), any())).willReturn(new PaginaEmpleados<>("5-5-15-0", listaEmpleados));
 
         //when
         ResultActions response = mockMvc.perform(get("/api/empleados"));
@@ -83,6 +215,220 @@ class EmpleadoControllerTest {
 
     }
 
+    @Test
+    void testListarEmpleadosPaginados() throws Exception{
+        //given
+        List<Empleado> listaEmpleados = new ArrayList<>();
+        listaEmpleados.add(Empleado.builder().id(11L).nombre("Paco").apellido("Cantu").email("p@p.p").build());
+        listaEmpleados.add(Empleado.builder().id(12L).nombre("Raul").apellido("Lopez").email("r@r.r").build());
+        given(empleadoService.getEmpleadosPaginados(eq(10L), eq(2), any())).willReturn(new PaginaEmpleados<>("2-12-23-0", listaEmpleados));
+
+        //when
+        ResultActions response = mockMvc.perform(get("/api/empleados")
+                .param("after", "10")
+                .param("limit", "2"));
+
+        //then
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.size()",is(2)))
+                .andExpect(jsonPath("$[0].id",is(11)))
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"2-12-23-0\""))
+                .andExpect(header().string("Link", "</api/empleados?after=12&limit=2>; rel=\"next\""));
+    }
+
+    @Test
+    void testListarEmpleadosNoModificados() throws Exception{
+        //given
+        given(empleadoService.getEmpleadosPaginados(eq(0L), eq(100), any())).willAnswer(invocation -> {
+            Predicate<String> noModificada = invocation.getArgument(2);
+            return noModificada.test("5-5-15-7")
+                    ? PaginaEmpleados.noModificada("5-5-15-7")
+                    : new PaginaEmpleados<>("5-5-15-7", List.of());
+        });
+
+        //when
+        ResultActions response = mockMvc.perform(get("/api/empleados")
+                .header(HttpHeaders.IF_NONE_MATCH, "W/\"5-5-15-7\""));
+
+        //then
+        response.andExpect(status().isNotModified())
+                .andDo(print());
+    }
+
+    @Test
+    void testListarEmpleadosParciales() throws Exception{
+        //given
+        given(empleadoService.proyectarEmpleados(eq(0L), eq(1), eq(Set.of("email")), any()))
+                .willReturn(new PaginaEmpleados<>("1-1-1-0", List.of(Map.of("id", 1L, "email", "p@p.p"))));
+
+        //when
+        ResultActions response = mockMvc.perform(get("/api/empleados")
+                .param("fields", "email")
+                .param("limit", "1"));
+
+        //then
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$[0].id",is(1)))
+                .andExpect(jsonPath("$[0].email",is("p@p.p")))
+                .andExpect(jsonPath("$[0].nombre").doesNotExist())
+                .andExpect(header().string("Link", "</api/empleados?after=1&limit=1&fields=email>; rel=\"next\""));
+        verify(empleadoService, never()).getEmpleadosPaginados(anyLong(), anyInt(), any());
+    }
+
+    @Test
+    void testListarEmpleadosCampoDesconocido() throws Exception{
+        //when
+        ResultActions response = mockMvc.perform(get("/api/empleados")
+                .param("fields", "id,salario"));
+
+        //then
+        response.andExpect(status().isBadRequest())
+                .andDo(print());
+        verify(empleadoService, never()).proyectarEmpleados(anyLong(), anyInt(), any(), any());
+    }
+
+    @Test
+    void testListarEmpleadosNdjson() throws Exception{
+        //given
+        Empleado empleado1 = Empleado.builder().id(1L).nombre("Paco").apellido("Cantu").email("p@p.p").build();
+        Empleado empleado2 = Empleado.builder().id(2L).nombre("Raul").apellido("Lopez").email("r@r.r").build();
+        willAnswer(invocation -> {
+            Consumer<Empleado> consumidor = invocation.getArgument(0);
+            consumidor.accept(empleado1);
+            consumidor.accept(empleado2);
+            return null;
+        }).given(empleadoService).streamEmpleados(any());
+
+        //when
+        MvcResult resultado = mockMvc.perform(get("/api/empleados")
+                        .accept(EmpleadoController.APPLICATION_NDJSON_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(resultado));
+
+        //then
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(content().contentType(EmpleadoController.APPLICATION_NDJSON_VALUE))
+                .andExpect(content().string(objectMapper.writeValueAsString(empleado1) + "\n"
+                        + objectMapper.writeValueAsString(empleado2) + "\n"));
+        verify(empleadoService, never()).getAllEmpleado();
+    }
+
+    @Test
+    void testListarTodosLosEmpleadosJson() throws Exception{
+        //given
+        Empleado empleado1 = Empleado.builder().id(1L).nombre("Paco").apellido("Cantu").email("p@p.p").build();
+        Empleado empleado2 = Empleado.builder().id(2L).nombre("Raul").apellido("Lopez").email("r@r.r").build();
+        willAnswer(invocation -> {
+            Consumer<Empleado> consumidor = invocation.getArgument(0);
+            consumidor.accept(empleado1);
+            consumidor.accept(empleado2);
+            return null;
+        }).given(empleadoService).streamEmpleados(any());
+
+        //when
+        MvcResult resultado = mockMvc.perform(get("/api/empleados").param("all", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(resultado));
+
+        //then
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.size()",is(2)))
+                .andExpect(jsonPath("$[0].nombre",is("Paco")))
+                .andExpect(jsonPath("$[1].email",is("r@r.r")));
+        verify(empleadoService, never()).getAllEmpleado();
+        verify(empleadoService, never()).getEmpleadosPaginados(anyLong(), anyInt(), any());
+    }
+
+    @Test
+    void testListarEmpleadosCbor() throws Exception{
+        //given
+        ObjectMapper cborMapper = objectMapper.copyWith(new CBORFactory());
+        Empleado empleado1 = Empleado.builder().id(1L).nombre("Paco").apellido("Cantu").email("p@p.p").build();
+        Empleado empleado2 = Empleado.builder().id(2L).nombre("Raul").apellido("Lopez").email("r@r.r").build();
+        willAnswer(invocation -> {
+            Consumer<Empleado> consumidor = invocation.getArgument(0);
+            consumidor.accept(empleado1);
+            consumidor.accept(empleado2);
+            return null;
+        }).given(empleadoService).streamEmpleados(any());
+
+        //when
+        MvcResult resultado = mockMvc.perform(get("/api/empleados")
+                        .accept(EmpleadoController.APPLICATION_CBOR_SEQ_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult respuesta = mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(EmpleadoController.APPLICATION_CBOR_SEQ_VALUE))
+                .andReturn();
+
+        //then
+        List<Empleado> leidos;
+        try (MappingIterator<Empleado> iterador = cborMapper.readerFor(Empleado.class)
+                .readValues(respuesta.getResponse().getContentAsByteArray())) {
+            leidos = iterador.readAll();
+        }
+        assertEquals(2, leidos.size());
+        assertEquals("Paco", leidos.get(0).getNombre());
+        assertEquals("r@r.r", leidos.get(1).getEmail());
+        verify(empleadoService, never()).getAllEmpleado();
+    }
+
+    @Test
+    void testStreamCambios() throws Exception{
+        //given
+        CambioEmpleado cambio1 = CambioEmpleado.builder().seq(8L).tipo(EmpleadoCambiadoEvent.Tipo.CREADO).id(1L)
+                .nombre("Paco").apellido("Cantu").email("p@p.p").version(0L).fecha(Instant.EPOCH).build();
+        CambioEmpleado cambio2 = CambioEmpleado.builder().seq(9L).tipo(EmpleadoCambiadoEvent.Tipo.ELIMINADO).id(1L)
+                .fecha(Instant.EPOCH).build();
+        given(empleadoService.esperarCambios(7L)).willReturn(CompletableFuture.completedFuture(9L));
+        given(empleadoService.getCambios(7L, 1000)).willReturn(List.of(cambio1, cambio2));
+
+        //when
+        MvcResult resultado = mockMvc.perform(get("/api/empleados/changes")
+                        .param("since", "7")
+                        .param("wait", "120"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        //primero se despacha el DeferredResult y despues la escritura del StreamingResponseBody
+        MvcResult escritura = mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        ResultActions response = mockMvc.perform(asyncDispatch(escritura));
+
+        //then
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(content().contentType(EmpleadoController.APPLICATION_NDJSON_VALUE))
+                .andExpect(content().string(objectMapper.writeValueAsString(cambio1) + "\n"
+                        + objectMapper.writeValueAsString(cambio2) + "\n"));
+    }
+
+    @Test
+    void testBuscarEmpleados() throws Exception{
+        //given
+        List<Empleado> encontrados = List.of(Empleado.builder().id(1L).nombre("Andy").apellido("Gomez").email("a@a.a").build());
+        given(empleadoService.buscarEmpleados("and", 5)).willReturn(encontrados);
+
+        //when
+        ResultActions response = mockMvc.perform(get("/api/empleados/search")
+                .param("q", "and")
+                .param("limit", "5"));
+
+        //then
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.size()",is(1)))
+                .andExpect(jsonPath("$[0].nombre",is("Andy")));
+    }
+
     @Test
     void testObtenerIdEmpleado() throws Exception {
         //given
@@ -105,6 +451,105 @@ class EmpleadoControllerTest {
                 .andExpect(jsonPath("$.email",is(empleado.getEmail())));
     }
 
+    @Test
+    void testObtenerEmpleadoPorEmail() throws Exception {
+        //given
+        Empleado empleado = Empleado.builder()
+                .id(1L)
+                .nombre("Andy")
+                .apellido("Gomez")
+                .email("andy.gomez@a.a")
+                .version(2L)
+                .build();
+        given(empleadoService.getEmpleadoByEmail("andy.gomez@a.a")).willReturn(Optional.of(empleado));
+        given(empleadoService.getEmpleadoByEmail("nadie@a.a")).willReturn(Optional.empty());
+
+        //when
+        ResultActions response = mockMvc.perform(get("/api/empleados/by-email/{email}", "andy.gomez@a.a"));
+
+        //then
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.id",is(1)))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+        mockMvc.perform(get("/api/empleados/by-email/{email}", "nadie@a.a"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testObtenerIdEmpleadoCbor() throws Exception {
+        //given
+        ObjectMapper cborMapper = objectMapper.copyWith(new CBORFactory());
+        long empleadoId = 1L;
+        Empleado empleado = Empleado.builder()
+                .id(empleadoId)
+                .nombre("Andy")
+                .apellido("Gomez")
+                .email("a@a.a")
+                .version(3L)
+                .build();
+        given(empleadoService.getEmpleadoById(empleadoId)).willReturn(Optional.of(empleado));
+
+        //when
+        MvcResult response = mockMvc.perform(get("/api/empleados/{id}", empleadoId)
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andReturn();
+
+        //then
+        byte[] cuerpo = response.getResponse().getContentAsByteArray();
+        Empleado leido = cborMapper.readValue(cuerpo, Empleado.class);
+        assertEquals(empleado.getNombre(), leido.getNombre());
+        assertEquals(empleado.getEmail(), leido.getEmail());
+        assertTrue(cuerpo.length < objectMapper.writeValueAsBytes(empleado).length);
+    }
+
+    @Test
+    void testObtenerEmpleadoParcial() throws Exception {
+        //given
+        long empleadoId = 1L;
+        given(empleadoService.proyectarEmpleado(empleadoId, Set.of("email", "version")))
+                .willReturn(Optional.of(Map.of("id", empleadoId, "email", "a@a.a", "version", 2L)));
+
+        //when
+        ResultActions response = mockMvc.perform(get("/api/empleados/{id}", empleadoId)
+                .param("fields", "email,version"));
+
+        //then
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.email",is("a@a.a")))
+                .andExpect(jsonPath("$.apellido").doesNotExist())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+        verify(empleadoService, never()).getEmpleadoById(any());
+    }
+
+    @Test
+    void testObtenerIdEmpleadoNoModificado() throws Exception {
+        //given
+        long empleadoId = 1L;
+        Empleado empleado = Empleado.builder()
+                .id(empleadoId)
+                .nombre("Andy")
+                .apellido("Gomez")
+                .email("a@a.a")
+                .version(3L)
+                .build();
+        given(empleadoService.getEmpleadoById(empleadoId)).willReturn(Optional.of(empleado));
+
+        //when
+        ResultActions response = mockMvc.perform(get("/api/empleados/{id}", empleadoId)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\""));
+
+        //then
+        response.andExpect(status().isNotModified())
+                .andDo(print())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(content().string(""));
+    }
+
     @Test
     void testObtenerIdEmpleadoNoEncontrado() throws Exception {
         //given
@@ -128,21 +573,14 @@ class EmpleadoControllerTest {
     void testActualizarEmpleado() throws Exception {
         //given
         long empleadoId = 1L;
-        Empleado empleadoGuardado = Empleado.builder()
-                .nombre("Andy")
-                .apellido("Gomez")
-                .email("a@a.a")
-                .build();
-
         Empleado empleadoActualizado = Empleado.builder()
                 .nombre("Andy actualizado")
                 .apellido("Gomez actualizado")
                 .email("aa@a.a")
                 .build();
 
-        given(empleadoService.getEmpleadoById(empleadoId)).willReturn(Optional.of(empleadoGuardado));
-        given(empleadoService.updateEmpleado(any(Empleado.class)))
-                .willAnswer((invocation) -> invocation.getArgument(0));
+        given(empleadoService.updateEmpleado(eq(empleadoId), any(Empleado.class), isNull()))
+                .willAnswer((invocation) -> Optional.of(invocation.<Empleado>getArgument(1).toBuilder().id(empleadoId).build()));
 
         //when
         ResultActions response = mockMvc.perform(put("/api/empleados/{id}", empleadoId)
@@ -152,30 +590,25 @@ class EmpleadoControllerTest {
         //then
         response.andExpect(status().isOk())
                 .andDo(print())
+                .andExpect(jsonPath("$.id",is(1)))
                 .andExpect(jsonPath("$.nombre",is(empleadoActualizado.getNombre())))
                 .andExpect(jsonPath("$.apellido",is(empleadoActualizado.getApellido())))
                 .andExpect(jsonPath("$.email",is(empleadoActualizado.getEmail())));
+        verify(empleadoService, never()).getEmpleadoById(any());
     }
 
     @Test
     void testActualizarEmpleadoNoEncontrado() throws Exception {
         //given
         long empleadoId = 1L;
-        Empleado empleadoGuardado = Empleado.builder()
-                .nombre("Andy")
-                .apellido("Gomez")
-                .email("a@a.a")
-                .build();
-
         Empleado empleadoActualizado = Empleado.builder()
                 .nombre("Andy actualizado")
                 .apellido("Gomez actualizado")
                 .email("aa@a.a")
                 .build();
 
-        given(empleadoService.getEmpleadoById(empleadoId)).willReturn(Optional.empty());
-        given(empleadoService.updateEmpleado(any(Empleado.class)))
-                .willAnswer((invocation) -> invocation.getArgument(0));
+        given(empleadoService.updateEmpleado(eq(empleadoId), any(Empleado.class), isNull()))
+                .willReturn(Optional.empty());
 
         //when
         ResultActions response = mockMvc.perform(put("/api/empleados/{id}", empleadoId)
@@ -187,6 +620,77 @@ class EmpleadoControllerTest {
                 .andDo(print());
     }
 
+    @Test
+    void testActualizarEmpleadoVersionObsoleta() throws Exception {
+        //given
+        long empleadoId = 1L;
+        Empleado empleadoActualizado = Empleado.builder()
+                .nombre("Andy")
+                .apellido("Gomez")
+                .email("aa@a.a")
+                .build();
+        given(empleadoService.updateEmpleado(eq(empleadoId), any(Empleado.class), eq(2L)))
+                .willThrow(new VersionConflictoException(empleadoId));
+
+        //when
+        ResultActions response = mockMvc.perform(put("/api/empleados/{id}", empleadoId)
+                .header(HttpHeaders.IF_MATCH, "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(empleadoActualizado)));
+
+        //then
+        response.andExpect(status().isPreconditionFailed())
+                .andDo(print());
+    }
+
+    @Test
+    void testModificarEmpleado() throws Exception {
+        //given
+        long empleadoId = 1L;
+        given(empleadoService.patchEmpleado(eq(empleadoId), any(Empleado.class), isNull()))
+                .willAnswer((invocation) -> Optional.of(invocation.<Empleado>getArgument(1).toBuilder().id(empleadoId).version(4L).build()));
+
+        //when
+        ResultActions response = mockMvc.perform(patch("/api/empleados/{id}", empleadoId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"nuevo@a.a\"}"));
+
+        //then
+        response.andExpect(status().isNoContent())
+                .andDo(print())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""));
+        verify(empleadoService).patchEmpleado(empleadoId, Empleado.builder().email("nuevo@a.a").build(), null);
+    }
+
+    @Test
+    void testModificarEmpleadoNoEncontrado() throws Exception {
+        //given
+        long empleadoId = 1L;
+        given(empleadoService.patchEmpleado(eq(empleadoId), any(Empleado.class), isNull())).willReturn(Optional.empty());
+
+        //when
+        ResultActions response = mockMvc.perform(patch("/api/empleados/{id}", empleadoId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"nombre\":\"Raul\"}"));
+
+        //then
+        response.andExpect(status().isNotFound())
+                .andDo(print());
+    }
+
+    @Test
+    void testModificarEmpleadoSinCambios() throws Exception {
+        //when
+        ResultActions response = mockMvc.perform(patch("/api/empleados/{id}", 1L)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{}"));
+
+        //then
+        response.andExpect(status().isBadRequest())
+                .andDo(print());
+        verify(empleadoService, never()).patchEmpleado(anyLong(), any(Empleado.class), any());
+    }
+
     @Test
     void testEliminarEmpleado() throws Exception {
         //given
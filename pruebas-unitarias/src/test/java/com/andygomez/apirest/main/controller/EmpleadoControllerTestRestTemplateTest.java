@@ -35,7 +35,7 @@ public class EmpleadoControllerTestRestTemplateTest {
                 .apellido("Gomez")
                 .email("a@a.a")
                 .build();
-        ResponseEntity<Empleado> respuesta = testRestTemplate.postForEntity("http://localhost:8080/api/empleados", empleado,Empleado.class);
+        ResponseEntity<Empleado> respuesta = testRestTemplate.postForEntity("/api/empleados", empleado,Empleado.class);
         assertEquals(HttpStatus.CREATED,respuesta.getStatusCode());
         assertEquals(MediaType.APPLICATION_JSON,respuesta.getHeaders().getContentType());
 
@@ -51,7 +51,7 @@ public class EmpleadoControllerTestRestTemplateTest {
     @Test
     @Order(2)
     void testListarEmpleados(){
-        ResponseEntity<Empleado[]> respuesta = testRestTemplate.getForEntity("http://localhost:8080/api/empleados", Empleado[].class);
+        ResponseEntity<Empleado[]> respuesta = testRestTemplate.getForEntity("/api/empleados", Empleado[].class);
         List<Empleado> empleados = Arrays.asList(respuesta.getBody());
 
         assertEquals(HttpStatus.OK,respuesta.getStatusCode());
@@ -67,32 +67,33 @@ public class EmpleadoControllerTestRestTemplateTest {
     @Test
     @Order(3)
     void testObtenerEmpleado(){
-        ResponseEntity<Empleado> respuesta = testRestTemplate.getForEntity("http://localhost:8080/api/empleados", Empleado.class);
+        ResponseEntity<Empleado> respuesta = testRestTemplate.getForEntity("/api/empleados/1", Empleado.class);
         Empleado empleado = respuesta.getBody();
 
         assertEquals(HttpStatus.OK,respuesta.getStatusCode());
-        assertEquals(MediaType.APPLICATION_JSON,respuesta.getHeaders());
+        assertEquals(MediaType.APPLICATION_JSON,respuesta.getHeaders().getContentType());
+        assertEquals("Andy",empleado.getNombre());
     }
 
     @Test
     @Order(4)
     void testEliminarEmpleado(){
-        ResponseEntity<Empleado[]> respuesta = testRestTemplate.getForEntity("http://localhost:8080/api/empleados", Empleado[].class);
+        ResponseEntity<Empleado[]> respuesta = testRestTemplate.getForEntity("/api/empleados", Empleado[].class);
         List<Empleado> empleados = Arrays.asList(respuesta.getBody());
         assertEquals(1,empleados.size());
 
         Map<String, Long> pathVariables = new HashMap<>();
         pathVariables.put("id",1L);
-        ResponseEntity<Void> exchange = testRestTemplate.exchange("http://localhost:8080/api/empleados/{id}", HttpMethod.DELETE,null, Void.class,pathVariables);
+        ResponseEntity<Void> exchange = testRestTemplate.exchange("/api/empleados/{id}", HttpMethod.DELETE,null, Void.class,pathVariables);
 
         assertEquals(HttpStatus.OK,exchange.getStatusCode());
         assertFalse(exchange.hasBody());
 
-        respuesta = testRestTemplate.getForEntity("http://localhost:8080/api/empleados",Empleado[].class);
+        respuesta = testRestTemplate.getForEntity("/api/empleados",Empleado[].class);
         empleados = Arrays.asList(respuesta.getBody());
         assertEquals(0,empleados.size());
 
-        ResponseEntity<Empleado> respuestaDetalle = testRestTemplate.getForEntity("http://localhost:8080/api/empleados/2",Empleado.class);
+        ResponseEntity<Empleado> respuestaDetalle = testRestTemplate.getForEntity("/api/empleados/2",Empleado.class);
         assertEquals(HttpStatus.NOT_FOUND,respuestaDetalle.getStatusCode());
         assertFalse(respuestaDetalle.hasBody());
 
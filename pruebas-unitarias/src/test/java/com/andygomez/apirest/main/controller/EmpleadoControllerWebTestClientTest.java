@@ -12,7 +12,8 @@ import java.util.List;
 import static org.hamcrest.Matchers.*;
 
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:webtestclient;DB_CLOSE_DELAY=-1")
 public class EmpleadoControllerWebTestClientTest {
 
     @Autowired
@@ -29,7 +30,7 @@ public class EmpleadoControllerWebTestClientTest {
                 .email("ab@a.a")
                 .build();
         //when
-        webTestClient.post().uri("http://localhost:8080/api/empleados")
+        webTestClient.post().uri("/api/empleados")
                 .contentType(MediaType.APPLICATION_JSON)
                 .bodyValue(empleado)
                 .exchange()
@@ -38,7 +39,7 @@ public class EmpleadoControllerWebTestClientTest {
                 .expectStatus().isCreated()
                 .expectHeader().contentType(MediaType.APPLICATION_JSON)
                 .expectBody()
-                .jsonPath("$.id").isEqualTo(empleado.getId())
+                .jsonPath("$.id").isEqualTo(1)
                 .jsonPath("$.nombre").isEqualTo(empleado.getNombre())
                 .jsonPath("$.apellido").isEqualTo(empleado.getApellido())
                 .jsonPath("$.email").isEqualTo(empleado.getEmail());
@@ -47,7 +48,7 @@ public class EmpleadoControllerWebTestClientTest {
     @Test
     @Order(2)
     void testObtenerIdEmpleado(){
-        webTestClient.get().uri("http://localhost:8080/api/empleados/1").exchange()
+        webTestClient.get().uri("/api/empleados/1").exchange()
                 .expectStatus().isOk()
                 .expectHeader().contentType(MediaType.APPLICATION_JSON)
                 .expectBody()
@@ -61,7 +62,7 @@ public class EmpleadoControllerWebTestClientTest {
     @Test
     @Order(3)
     void testListarEmpleado(){
-        webTestClient.get().uri("http://localhost:8080/api/empleados").exchange()
+        webTestClient.get().uri("/api/empleados").exchange()
                 .expectStatus().isOk()
                 .expectHeader().contentType(MediaType.APPLICATION_JSON)
                 .expectBody()
@@ -75,7 +76,7 @@ public class EmpleadoControllerWebTestClientTest {
     @Test
     @Order(4)
     void testObtenerListadoEmpleados(){
-        webTestClient.get().uri("http://localhost:8080/api/empleados").exchange()
+        webTestClient.get().uri("/api/empleados").exchange()
                 .expectStatus().isOk()
                 .expectHeader().contentType(MediaType.APPLICATION_JSON)
                 .expectBodyList(Empleado.class)
@@ -95,7 +96,7 @@ public class EmpleadoControllerWebTestClientTest {
                 .email("l@l.l")
                 .build();
 
-        webTestClient.put().uri("http://localhost:8080/api/empleados/1")
+        webTestClient.put().uri("/api/empleados/1")
                 .contentType(MediaType.APPLICATION_JSON)
                 .bodyValue(empleadoActualizado)
                 .exchange()
@@ -109,22 +110,22 @@ public class EmpleadoControllerWebTestClientTest {
     @Test
     @Order(6)
     void testEliminarEmpleado(){
-        webTestClient.get().uri("http://localhost:8080/api/empleados").exchange()
+        webTestClient.get().uri("/api/empleados").exchange()
                 .expectStatus().isOk()
                 .expectHeader().contentType(MediaType.APPLICATION_JSON)
                 .expectBodyList(Empleado.class)
                 .hasSize(1);
 
-        webTestClient.delete().uri("http://localhost:8080/api/empleados/1").exchange()
+        webTestClient.delete().uri("/api/empleados/1").exchange()
                 .expectStatus().isOk();
 
-        webTestClient.get().uri("http://localhost:8080/api/empleados").exchange()
+        webTestClient.get().uri("/api/empleados").exchange()
                 .expectStatus().isOk()
                 .expectHeader().contentType(MediaType.APPLICATION_JSON)
                 .expectBodyList(Empleado.class)
                 .hasSize(0);
 
-        webTestClient.get().uri("http://localhost:8080/api/empleados/1").exchange()
+        webTestClient.get().uri("/api/empleados/1").exchange()
                 .expectStatus().is4xxClientError();
     }
 
@@ -0,0 +1,124 @@
+package com.andygomez.apirest.main.feed;
+
+import com.andygomez.apirest.main.event.EmpleadoCambiadoEvent;
+import com.andygomez.apirest.main.model.CambioEmpleado;
+import com.andygomez.apirest.main.model.Empleado;
+import com.andygomez.apirest.main.service.EmpleadoService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:cambios;DB_CLOSE_DELAY=-1")
+class RegistroCambiosTest {
+
+    @Autowired
+    private EmpleadoService empleadoService;
+
+    @Autowired
+    private RegistroCambios registroCambios;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @DisplayName("Test para registrar alta, modificacion y baja en orden")
+    @Test
+    void testRegistrarCambios(){
+        //given
+        long desde = registroCambios.horizonte();
+
+        //when
+        Empleado empleado = empleadoService.saveEmpleado(Empleado.builder()
+                .nombre("Andy").apellido("Gomez").email("cambios@a.a").build());
+        empleadoService.patchEmpleado(empleado.getId(), Empleado.builder().nombre("Raul").build(), null);
+        empleadoService.deleteEmpleado(empleado.getId());
+        List<CambioEmpleado> cambios = empleadoService.getCambios(desde, 100);
+
+        //then
+        assertThat(cambios).extracting(CambioEmpleado::getTipo).containsExactly(
+                EmpleadoCambiadoEvent.Tipo.CREADO,
+                EmpleadoCambiadoEvent.Tipo.ACTUALIZADO,
+                EmpleadoCambiadoEvent.Tipo.ELIMINADO);
+        assertThat(cambios).extracting(CambioEmpleado::getId).containsOnly(empleado.getId());
+        assertThat(cambios.get(1).getNombre()).isEqualTo("Raul");
+        assertThat(cambios.get(1).getApellido()).isNull();
+        assertThat(empleadoService.getCambios(cambios.get(2).getSeq(), 100)).isEmpty();
+    }
+
+    @DisplayName("Test para despertar un long-poll cuando se confirma un cambio")
+    @Test
+    void testEsperarCambios() throws Exception{
+        //given
+        long desde = registroCambios.horizonte();
+        CompletableFuture<List<CambioEmpleado>> espera = empleadoService.esperarCambios(desde)
+                .thenApply(horizonte -> empleadoService.getCambios(desde, 100));
+
+        //when
+        Thread.sleep(200);
+        assertThat(espera).isNotDone();
+        empleadoService.saveEmpleado(Empleado.builder()
+                .nombre("Andy").apellido("Gomez").email("espera@a.a").build());
+
+        //then
+        List<CambioEmpleado> cambios = espera.get(5, TimeUnit.SECONDS);
+        assertThat(cambios).hasSize(1);
+        assertThat(cambios.get(0).getEmail()).isEqualTo("espera@a.a");
+    }
+
+    @DisplayName("Test para no registrar la baja de un empleado inexistente")
+    @Test
+    void testEliminarInexistente(){
+        //given
+        long desde = registroCambios.horizonte();
+
+        //when
+        empleadoService.deleteEmpleado(999999L);
+
+        //then
+        assertThat(registroCambios.horizonte()).isEqualTo(desde);
+        assertThat(empleadoService.getCambios(desde, 100)).isEmpty();
+    }
+
+    @DisplayName("Test para no mostrar cambios por encima de una transaccion abierta")
+    @Test
+    void testHorizonteConTransaccionAbierta() throws Exception{
+        //given
+        long desde = registroCambios.horizonte();
+        CountDownLatch registrado = new CountDownLatch(1);
+        CountDownLatch confirmar = new CountDownLatch(1);
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        CompletableFuture<Void> lenta = CompletableFuture.runAsync(() -> transaccion.executeWithoutResult(estado -> {
+            empleadoService.saveEmpleado(Empleado.builder()
+                    .nombre("Lenta").apellido("Gomez").email("lenta@a.a").build());
+            registrado.countDown();
+            try {
+                confirmar.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        registrado.await(10, TimeUnit.SECONDS);
+
+        //when
+        empleadoService.saveEmpleado(Empleado.builder()
+                .nombre("Rapida").apellido("Gomez").email("rapida@a.a").build());
+        List<CambioEmpleado> antes = empleadoService.getCambios(desde, 100);
+        confirmar.countDown();
+        lenta.get(10, TimeUnit.SECONDS);
+        List<CambioEmpleado> despues = empleadoService.getCambios(desde, 100);
+
+        //then
+        assertThat(antes).isEmpty();
+        assertThat(despues).extracting(CambioEmpleado::getEmail).containsExactly("lenta@a.a", "rapida@a.a");
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.andygomez.apirest.main.idempotency;
+
+import com.andygomez.apirest.main.exception.EmailDuplicadoException;
+import com.andygomez.apirest.main.exception.IdempotenciaConflictoException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AlmacenIdempotenciaTest {
+
+    private final AlmacenIdempotencia almacen = new AlmacenIdempotencia(100, Duration.ofMinutes(1), Duration.ofSeconds(5));
+
+    @DisplayName("Test para devolver la respuesta original al repetir una clave sin ejecutar otra vez la operacion")
+    @Test
+    void testRepetirClave(){
+        //given
+        AtomicInteger ejecuciones = new AtomicInteger();
+        almacen.ejecutar("clave", "cuerpo", () -> ResponseEntity.status(HttpStatus.CREATED).body(ejecuciones.incrementAndGet()));
+
+        //when
+        ResponseEntity<?> repetida = almacen.ejecutar("clave", "cuerpo",
+                () -> ResponseEntity.status(HttpStatus.CREATED).body(ejecuciones.incrementAndGet()));
+
+        //then
+        assertThat(ejecuciones).hasValue(1);
+        assertThat(repetida.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(repetida.getBody()).isEqualTo(1);
+        assertThat(repetida.getHeaders().getFirst(AlmacenIdempotencia.CABECERA_REPETIDA)).isEqualTo("true");
+    }
+
+    @DisplayName("Test para rechazar con 422 la misma clave con otro cuerpo")
+    @Test
+    void testClaveConOtroCuerpo(){
+        //given
+        almacen.ejecutar("clave", "cuerpo", () -> ResponseEntity.status(HttpStatus.CREATED).build());
+
+        //when //then
+        assertThatThrownBy(() -> almacen.ejecutar("clave", "otro cuerpo", () -> ResponseEntity.status(HttpStatus.CREATED).build()))
+                .isInstanceOf(IdempotenciaConflictoException.class);
+    }
+
+    @DisplayName("Test para que una repeticion en vuelo espere el resultado de la primera peticion")
+    @Test
+    void testEsperarPeticionEnVuelo() throws Exception{
+        //given
+        AtomicInteger ejecuciones = new AtomicInteger();
+        CountDownLatch ejecutando = new CountDownLatch(1);
+        CountDownLatch continuar = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<?>> primera = CompletableFuture.supplyAsync(() -> almacen.ejecutar("clave", "cuerpo", () -> {
+            ejecutando.countDown();
+            try {
+                continuar.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return ResponseEntity.status(HttpStatus.CREATED).body(ejecuciones.incrementAndGet());
+        }));
+        ejecutando.await(5, TimeUnit.SECONDS);
+
+        //when
+        CompletableFuture<ResponseEntity<?>> segunda = CompletableFuture.supplyAsync(() -> almacen.ejecutar("clave", "cuerpo",
+                () -> ResponseEntity.status(HttpStatus.CREATED).body(ejecuciones.incrementAndGet())));
+        Thread.sleep(100);
+        assertThat(segunda).isNotDone();
+        continuar.countDown();
+
+        //then
+        assertThat(primera.get(5, TimeUnit.SECONDS).getBody()).isEqualTo(1);
+        assertThat(segunda.get(5, TimeUnit.SECONDS).getBody()).isEqualTo(1);
+        assertThat(ejecuciones).hasValue(1);
+    }
+
+    @DisplayName("Test para repetir los errores del cliente y volver a ejecutar tras un error del servidor")
+    @Test
+    void testGuardarSoloErroresDelCliente(){
+        //given
+        AtomicInteger ejecuciones = new AtomicInteger();
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> almacen.ejecutar("duplicado", "cuerpo", () -> {
+                ejecuciones.incrementAndGet();
+                throw new EmailDuplicadoException("a@a.a");
+            })).isInstanceOf(EmailDuplicadoException.class);
+        }
+
+        //when
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> almacen.ejecutar("caida", "cuerpo", () -> {
+                ejecuciones.incrementAndGet();
+                throw new IllegalStateException("sin conexion");
+            })).isInstanceOf(IllegalStateException.class);
+        }
+
+        //then
+        assertThat(ejecuciones).hasValue(3);
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.andygomez.apirest.main.idempotency;
+
+import com.andygomez.apirest.main.service.EmpleadoService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:idempotencia;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+class IdempotenciaControllerTest {
+
+    private static final String CUERPO = "{\"nombre\":\"Andy\",\"apellido\":\"Gomez\",\"email\":\"idempotente@a.a\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @SpyBean
+    private EmpleadoService empleadoService;
+
+    @DisplayName("Test para devolver el 201 original al reintentar un alta con la misma Idempotency-Key")
+    @Test
+    void testReintentarAltaConClave() throws Exception{
+        //given
+        String original = mockMvc.perform(post("/api/empleados")
+                        .header(AlmacenIdempotencia.CABECERA, "alta-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(CUERPO))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        //when
+        String repetida = mockMvc.perform(post("/api/empleados")
+                        .header(AlmacenIdempotencia.CABECERA, "alta-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(CUERPO))
+                //then
+                .andExpect(status().isCreated())
+                .andExpect(header().string(AlmacenIdempotencia.CABECERA_REPETIDA, "true"))
+                .andReturn().getResponse().getContentAsString();
+        JsonNode empleadoOriginal = objectMapper.readTree(original);
+        assertThat(objectMapper.readTree(repetida).get("id")).isEqualTo(empleadoOriginal.get("id"));
+        verify(empleadoService, times(1)).saveEmpleado(any());
+
+        mockMvc.perform(post("/api/empleados")
+                        .header(AlmacenIdempotencia.CABECERA, "alta-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(CUERPO.replace("Andy", "Otro")))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+}
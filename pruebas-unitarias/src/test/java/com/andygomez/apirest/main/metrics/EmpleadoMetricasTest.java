@@ -0,0 +1,124 @@
+package com.andygomez.apirest.main.metrics;
+
+import com.andygomez.apirest.main.cache.EmpleadoCache;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:metricas;DB_CLOSE_DELAY=-1",
+        "empleados.pool.maximo-conexiones=7",
+        //sin empleados.pool.timeout-conexion manda lo de spring.datasource.hikari
+        "spring.datasource.hikari.connection-timeout=5000"
+})
+@AutoConfigureMockMvc
+class EmpleadoMetricasTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private EmpleadoCache empleadoCache;
+
+    @Autowired
+    private HikariDataSource dataSource;
+
+    @BeforeEach
+    void setup(){
+        empleadoCache.invalidarTodo();
+    }
+
+    @DisplayName("Test para registrar el timer del servicio, el 404 y las sentencias SQL de la peticion")
+    @Test
+    void testMetricasDeEmpleadoNoEncontrado() throws Exception{
+        //given
+        double noEncontradosPrevios = contarNoEncontrados();
+
+        //when
+        mockMvc.perform(get("/api/empleados/{id}", 999L))
+                .andExpect(status().isNotFound());
+
+        //then
+        Timer timer = meterRegistry.find(EmpleadoMetricas.TIMER_SERVICIO)
+                .tag("method", "getEmpleadoById")
+                .timer();
+        assertThat(timer).isNotNull();
+        assertThat(timer.count()).isGreaterThanOrEqualTo(1);
+        assertThat(contarNoEncontrados()).isEqualTo(noEncontradosPrevios + 1);
+
+        DistributionSummary sentencias = meterRegistry.find("empleados.sql.peticion")
+                .tag("operacion", "obtenerEmpleadoId")
+                .summary();
+        assertThat(sentencias).isNotNull();
+        assertThat(sentencias.max()).isEqualTo(1);
+    }
+
+    @DisplayName("Test para contar las sentencias SQL de una peticion de streaming")
+    @Test
+    void testSentenciasDePeticionAsincrona() throws Exception{
+        //when
+        MvcResult resultado = mockMvc.perform(get("/api/empleados/export").accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk());
+
+        //then
+        DistributionSummary sentencias = meterRegistry.find("empleados.sql.peticion")
+                .tag("operacion", "exportarNdjson")
+                .summary();
+        assertThat(sentencias).isNotNull();
+        assertThat(sentencias.max()).isGreaterThanOrEqualTo(1);
+    }
+
+    @DisplayName("Test para aplicar la configuracion del pool y medir la conexion por operacion")
+    @Test
+    void testMetricasDelPoolPorOperacion() throws Exception{
+        //when
+        mockMvc.perform(get("/api/empleados/{id}", 998L))
+                .andExpect(status().isNotFound());
+
+        //then
+        assertThat(dataSource.getMaximumPoolSize()).isEqualTo(7);
+        assertThat(dataSource.getConnectionTimeout()).isEqualTo(5000);
+        assertThat(dataSource.getDataSourceProperties()).containsEntry("QUERY_CACHE_SIZE", "64");
+        Timer espera = meterRegistry.find("empleados.conexion.espera")
+                .tag("operacion", "getEmpleadoById")
+                .timer();
+        Timer uso = meterRegistry.find("empleados.conexion.uso")
+                .tag("operacion", "getEmpleadoById")
+                .timer();
+        assertThat(espera).isNotNull();
+        assertThat(espera.count()).isGreaterThanOrEqualTo(1);
+        assertThat(uso).isNotNull();
+        assertThat(meterRegistry.find("hikaricp.connections.acquire").timer()).isNotNull();
+    }
+
+    private double contarNoEncontrados(){
+        return meterRegistry.find("empleados.no.encontrado")
+                .tag("operacion", "obtenerEmpleadoId")
+                .counters()
+                .stream()
+                .mapToDouble(contador -> contador.count())
+                .sum();
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.andygomez.apirest.main.ratelimit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LimitadorConcurrenciaTest {
+
+    private static final long OBJETIVO = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @DisplayName("Test para rechazar cuando se alcanza el limite de peticiones en vuelo")
+    @Test
+    void testRechazarAlAlcanzarLimite(){
+        //given
+        LimitadorConcurrencia limitador = new LimitadorConcurrencia(2, 1, 10, Duration.ofNanos(OBJETIVO));
+
+        //when
+        boolean primera = limitador.adquirir();
+        boolean segunda = limitador.adquirir();
+        boolean tercera = limitador.adquirir();
+
+        //then
+        assertThat(primera).isTrue();
+        assertThat(segunda).isTrue();
+        assertThat(tercera).isFalse();
+        assertThat(limitador.enVuelo()).isEqualTo(2);
+    }
+
+    @DisplayName("Test para reducir el limite con latencias altas como mucho una vez por intervalo y subirlo con latencias bajas")
+    @Test
+    void testAjustarLimiteSegunLatencia(){
+        //given
+        LimitadorConcurrencia limitador = new LimitadorConcurrencia(100, 10, 1000, Duration.ofNanos(OBJETIVO));
+        long ahora = System.nanoTime() + OBJETIVO;
+
+        //when
+        for (int i = 0; i < 50; i++) {
+            limitador.adquirir();
+        }
+        for (int i = 0; i < 50; i++) {
+            limitador.liberar(OBJETIVO * 2, ahora);
+        }
+        int trasRafagaLenta = limitador.limite();
+        for (int i = 0; i < 20; i++) {
+            limitador.adquirir();
+            limitador.liberar(OBJETIVO * 2, ahora + OBJETIVO * (i + 1));
+        }
+        int trasLentasEspaciadas = limitador.limite();
+        for (int i = 0; i < 1000; i++) {
+            for (int j = 0; j < 10; j++) {
+                limitador.adquirir();
+            }
+            for (int j = 0; j < 10; j++) {
+                limitador.liberar(OBJETIVO / 10, ahora);
+            }
+        }
+
+        //then
+        assertThat(trasRafagaLenta).isEqualTo(90);
+        assertThat(trasLentasEspaciadas).isEqualTo(10);
+        assertThat(limitador.limite()).isGreaterThan(trasLentasEspaciadas);
+        assertThat(limitador.enVuelo()).isZero();
+    }
+
+    @DisplayName("Test para liberar sin muestra dejando el hueco y sin tocar el limite")
+    @Test
+    void testLiberarSinMuestra(){
+        //given
+        LimitadorConcurrencia limitador = new LimitadorConcurrencia(2, 1, 10, Duration.ofNanos(OBJETIVO));
+        limitador.adquirir();
+        limitador.adquirir();
+
+        //when
+        limitador.liberarSinMuestra();
+        limitador.liberarSinMuestra();
+
+        //then
+        assertThat(limitador.limite()).isEqualTo(2);
+        assertThat(limitador.enVuelo()).isZero();
+        assertThat(limitador.adquirir()).isTrue();
+    }
+
+}
@@ -0,0 +1,125 @@
+package com.andygomez.apirest.main.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:limite;DB_CLOSE_DELAY=-1",
+        "empleados.limite.habilitado=true",
+        "empleados.limite.cabecera-cliente=X-Cliente",
+        "empleados.limite.capacidad=40",
+        "empleados.limite.recarga-por-segundo=0.1",
+        "empleados.limite.pesos.listado=20",
+        "empleados.limite.pesos.consulta=1"
+})
+@AutoConfigureMockMvc
+class LimiteFiltroTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private LimitadorConcurrencia limitadorConcurrencia;
+
+    @DisplayName("Test para responder 429 con Retry-After cuando el cliente agota sus tokens con el listado")
+    @Test
+    void testLimitarListadoPorCliente() throws Exception{
+        //given
+        double rechazosPrevios = contarRechazos();
+        mockMvc.perform(get("/api/empleados").header("X-Cliente", "pesado"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/empleados").header("X-Cliente", "pesado"))
+                .andExpect(status().isOk());
+
+        //when
+        mockMvc.perform(get("/api/empleados").header("X-Cliente", "pesado"))
+                //then
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+        assertThat(contarRechazos()).isEqualTo(rechazosPrevios + 1);
+    }
+
+    @DisplayName("Test para que el limite de un cliente no afecte a otro ni a las consultas por id baratas")
+    @Test
+    void testLimitarSoloAlClientePesado() throws Exception{
+        //given
+        mockMvc.perform(get("/api/empleados").header("X-Cliente", "otro-pesado"));
+        mockMvc.perform(get("/api/empleados").header("X-Cliente", "otro-pesado"));
+
+        //when
+        for (int i = 0; i < 30; i++) {
+            mockMvc.perform(get("/api/empleados/{id}", 999L).header("X-Cliente", "ligero"))
+                    //then
+                    .andExpect(status().isNotFound());
+        }
+        mockMvc.perform(get("/api/empleados").header("X-Cliente", "ligero"))
+                .andExpect(status().isTooManyRequests());
+        mockMvc.perform(get("/api/empleados/{id}", 999L).header("X-Cliente", "ligero"))
+                .andExpect(status().isNotFound());
+    }
+
+    @DisplayName("Test para mantener en vuelo una peticion asincrona hasta que termina")
+    @Test
+    void testLiberarPeticionAsincronaAlTerminar() throws Exception{
+        //given
+        int enVueloPrevias = limitadorConcurrencia.enVuelo();
+
+        //when
+        MvcResult resultado = mockMvc.perform(get("/api/empleados/export")
+                        .header("X-Cliente", "exportador")
+                        .header(HttpHeaders.ACCEPT, "application/x-ndjson"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        //then
+        assertThat(resultado.getRequest().isAsyncStarted()).isTrue();
+        assertThat(limitadorConcurrencia.enVuelo()).isEqualTo(enVueloPrevias + 1);
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk());
+        assertThat(limitadorConcurrencia.enVuelo()).isEqualTo(enVueloPrevias);
+    }
+
+    @DisplayName("Test para que un export lento no reduzca el limite de concurrencia")
+    @Test
+    void testNoReducirLimiteConExportLento() throws Exception{
+        //given
+        int limitePrevio = limitadorConcurrencia.limite();
+        MvcResult resultado = mockMvc.perform(get("/api/empleados/export")
+                        .header("X-Cliente", "exportador-lento")
+                        .header(HttpHeaders.ACCEPT, "application/x-ndjson"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        //when
+        //mas que la latencia objetivo de 250ms antes de terminar la peticion
+        Thread.sleep(400);
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk());
+
+        //then
+        assertThat(limitadorConcurrencia.limite()).isEqualTo(limitePrevio);
+    }
+
+    private double contarRechazos(){
+        Counter contador = meterRegistry.find("empleados.peticiones.rechazadas").tag("motivo", "limite").counter();
+        return contador == null ? 0 : contador.count();
+    }
+
+}
@@ -0,0 +1,132 @@
+package com.andygomez.apirest.main.replica;
+
+import com.andygomez.apirest.main.model.Empleado;
+import com.andygomez.apirest.main.service.EmpleadoService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import jakarta.servlet.http.Cookie;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + EnrutamientoReplicasTest.URL_PRIMARIA,
+        "empleados.replicas.habilitado=true",
+        "empleados.replicas.urls[0]=" + EnrutamientoReplicasTest.URL_REPLICA,
+        "empleados.replicas.ventana-lectura-escritura=1s",
+        "empleados.cache.habilitado=false",
+        //la cache de segundo nivel serviria la entidad sin pasar por ninguna de las dos bases
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+        "empleados.busqueda.habilitada=false"
+})
+@AutoConfigureMockMvc
+class EnrutamientoReplicasTest {
+
+    static final String URL_PRIMARIA = "jdbc:h2:mem:primaria;DB_CLOSE_DELAY=-1";
+    //la replica no recibe el DDL de Hibernate, se crea la tabla al abrirla
+    static final String URL_REPLICA = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1;INIT=create table if not exists empleados ("
+            + "id bigint not null primary key, nombre varchar(255) not null, apellido varchar(255) not null, "
+            + "email varchar(255) not null, version bigint not null)";
+
+    @Autowired
+    private EmpleadoService empleadoService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private JdbcTemplate primaria;
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setup() throws InterruptedException{
+        primaria = new JdbcTemplate(new DriverManagerDataSource(URL_PRIMARIA, "root", "root"));
+        replica = new JdbcTemplate(new DriverManagerDataSource(URL_REPLICA, "root", "root"));
+        replica.update("delete from empleados");
+        replica.update("insert into empleados (id, nombre, apellido, email, version) values (900, 'Solo', 'Replica', 'r@r.r', 0)");
+        //que no quede abierta la ventana de lectura tras escritura de otro test
+        Thread.sleep(1100);
+    }
+
+    @DisplayName("Test para leer de la replica en una transaccion de solo lectura")
+    @Test
+    void testLeerDeReplica(){
+        //when
+        Optional<Empleado> empleado = empleadoService.getEmpleadoById(900L);
+
+        //then
+        assertThat(empleado).isPresent();
+        assertThat(empleado.get().getApellido()).isEqualTo("Replica");
+        assertThat(primaria.queryForObject("select count(*) from empleados where id = 900", Long.class)).isZero();
+    }
+
+    @DisplayName("Test para escribir en la primaria y leer lo escrito durante la ventana")
+    @Test
+    void testEscribirEnPrimariaYLeerLoEscrito() throws InterruptedException{
+        //when
+        Empleado empleado = empleadoService.saveEmpleado(Empleado.builder()
+                .nombre("Andy").apellido("Gomez").email("replicas@a.a").build());
+        Optional<Empleado> dentroDeLaVentana = empleadoService.getEmpleadoById(empleado.getId());
+        Thread.sleep(1100);
+        Optional<Empleado> fueraDeLaVentana = empleadoService.getEmpleadoById(empleado.getId());
+
+        //then
+        assertThat(primaria.queryForObject("select count(*) from empleados where id = ?", Long.class, empleado.getId())).isEqualTo(1L);
+        assertThat(replica.queryForObject("select count(*) from empleados where id = ?", Long.class, empleado.getId())).isZero();
+        assertThat(dentroDeLaVentana).isPresent();
+        //sin replicacion real la replica no la tiene: demuestra que la lectura fue a la replica
+        assertThat(fueraDeLaVentana).isEmpty();
+    }
+
+    @DisplayName("Test para abrir la ventana solo al cliente que escribio")
+    @Test
+    void testVentanaPorCliente() throws Exception{
+        //given
+        Empleado empleado = CompletableFuture.supplyAsync(() -> empleadoService.saveEmpleado(Empleado.builder()
+                .nombre("Otro").apellido("Cliente").email("otro@a.a").build())).get(10, TimeUnit.SECONDS);
+
+        //when
+        Optional<Empleado> desdeOtroCliente = empleadoService.getEmpleadoById(empleado.getId());
+
+        //then
+        assertThat(desdeOtroCliente).isEmpty();
+    }
+
+    @DisplayName("Test para llevar la ventana del cliente en una cookie")
+    @Test
+    void testVentanaEnCookie() throws Exception{
+        //given
+        MvcResult alta = mockMvc.perform(post("/api/empleados")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\":\"Andy\",\"apellido\":\"Gomez\",\"email\":\"cookie@a.a\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(cookie().exists(VentanaLecturaEscritura.COOKIE))
+                .andReturn();
+        Cookie ventana = alta.getResponse().getCookie(VentanaLecturaEscritura.COOKIE);
+        Long id = primaria.queryForObject("select id from empleados where email = 'cookie@a.a'", Long.class);
+
+        //when
+        //then
+        mockMvc.perform(get("/api/empleados/{id}", id).cookie(ventana))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/empleados/{id}", id))
+                .andExpect(status().isNotFound());
+    }
+
+}
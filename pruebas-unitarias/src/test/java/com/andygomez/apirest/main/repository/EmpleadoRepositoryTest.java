@@ -7,9 +7,15 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -19,6 +25,9 @@ class EmpleadoRepositoryTest {
     @Autowired
     private EmpleadoRepository empleadoRepository;
 
+    @Autowired
+    private TestEntityManager testEntityManager;
+
     private Empleado empleado;
 
     @BeforeEach
@@ -70,6 +79,42 @@ class EmpleadoRepositoryTest {
 
     }
 
+    @DisplayName("Test para listar empleados por pagina despues de un ID")
+    @Test
+    void testListarEmpleadosPaginados(){
+        //given
+        Empleado empleado1 = empleadoRepository.save(Empleado.builder().nombre("Patricio").apellido("Robles").email("p@r.p").build());
+        Empleado empleado2 = empleadoRepository.save(Empleado.builder().nombre("Raul").apellido("Perez").email("p@p.p").build());
+        Empleado empleado3 = empleadoRepository.save(empleado);
+
+        //when
+        List<Empleado> primeraPagina = empleadoRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 2));
+        List<Empleado> segundaPagina = empleadoRepository.findByIdGreaterThanOrderByIdAsc(
+                primeraPagina.get(primeraPagina.size() - 1).getId(), PageRequest.of(0, 2));
+
+        //then
+        assertThat(primeraPagina).extracting(Empleado::getId).containsExactly(empleado1.getId(), empleado2.getId());
+        assertThat(segundaPagina).extracting(Empleado::getId).containsExactly(empleado3.getId());
+    }
+
+    @DisplayName("Test para recorrer empleados con un cursor")
+    @Test
+    void testStreamEmpleados(){
+        //given
+        empleadoRepository.save(Empleado.builder().nombre("Patricio").apellido("Robles").email("p@r.p").build());
+        empleadoRepository.save(empleado);
+
+        //when
+        List<Empleado> empleados;
+        try (Stream<Empleado> stream = empleadoRepository.streamAllByOrderByIdAsc()) {
+            empleados = stream.collect(Collectors.toList());
+        }
+
+        //then
+        assertThat(empleados).hasSize(2);
+        assertThat(empleados.get(0).getId()).isLessThan(empleados.get(1).getId());
+    }
+
     @DisplayName("Test para obtener empleado por ID")
     @Test
     void testObtenerIdEmpleado(){
@@ -99,6 +144,93 @@ class EmpleadoRepositoryTest {
         assertThat(empleadoActualizado.getEmail()).isEqualTo("aaa@aaa.a");
     }
 
+    @DisplayName("Test para actualizar empleado con una sola sentencia")
+    @Test
+    void testActualizarEmpleadoSentenciaUnica(){
+        empleadoRepository.save(empleado);
+
+        //when
+        int filas = empleadoRepository.actualizarEmpleado(empleado.getId(), "Rodolfo", "Epifanio", "aaa@aaa.a", null);
+        int filasInexistente = empleadoRepository.actualizarEmpleado(999999L, "Rodolfo", "Epifanio", "b@b.b", null);
+        testEntityManager.clear();
+
+        //then
+        Empleado empleadoBD = empleadoRepository.findById(empleado.getId()).get();
+        assertThat(filas).isEqualTo(1);
+        assertThat(filasInexistente).isEqualTo(0);
+        assertThat(empleadoBD.getNombre()).isEqualTo("Rodolfo");
+        assertThat(empleadoBD.getEmail()).isEqualTo("aaa@aaa.a");
+        assertThat(empleadoBD.getVersion()).isEqualTo(1L);
+    }
+
+    @DisplayName("Test para no actualizar un empleado con una version obsoleta")
+    @Test
+    void testActualizarEmpleadoVersionObsoleta(){
+        empleadoRepository.saveAndFlush(empleado);
+        long version = empleado.getVersion();
+
+        //when
+        int filas = empleadoRepository.actualizarEmpleado(empleado.getId(), "Rodolfo", "Epifanio", "aaa@aaa.a", version);
+        int filasObsoletas = empleadoRepository.actualizarParcial(empleado.getId(), Empleado.builder().nombre("Raul").build(), version);
+        testEntityManager.clear();
+
+        //then
+        Empleado empleadoBD = empleadoRepository.findById(empleado.getId()).get();
+        assertThat(filas).isEqualTo(1);
+        assertThat(filasObsoletas).isEqualTo(0);
+        assertThat(empleadoBD.getNombre()).isEqualTo("Rodolfo");
+        assertThat(empleadoBD.getVersion()).isEqualTo(version + 1);
+    }
+
+    @DisplayName("Test para resumir una pagina sin cargar los empleados")
+    @Test
+    void testResumirPagina(){
+        empleadoRepository.saveAndFlush(empleado);
+
+        //when
+        EmpleadoRepository.ResumenPagina resumen = empleadoRepository.resumirPagina(0L, 10);
+        EmpleadoRepository.ResumenPagina vacio = empleadoRepository.resumirPagina(empleado.getId(), 10);
+
+        //then
+        assertThat(resumen.getTotal()).isEqualTo(1L);
+        assertThat(resumen.getMaximo()).isEqualTo(empleado.getId());
+        assertThat(resumen.getSumaVersiones()).isEqualTo(0L);
+        assertThat(vacio.getTotal()).isEqualTo(0L);
+    }
+
+    @DisplayName("Test para proyectar solo los campos pedidos sin cargar entidades")
+    @Test
+    void testProyectarCampos(){
+        empleadoRepository.saveAndFlush(empleado);
+        testEntityManager.clear();
+
+        //when
+        List<Map<String, Object>> pagina = empleadoRepository.proyectarPagina(Set.of("email"), 0L, 10);
+        Optional<Map<String, Object>> porId = empleadoRepository.proyectarPorId(Set.of("nombre", "version"), empleado.getId());
+
+        //then
+        assertThat(pagina).containsExactly(Map.of("id", empleado.getId(), "email", "a@a.a"));
+        assertThat(porId).contains(Map.of("id", empleado.getId(), "nombre", "Andy", "version", 0L));
+        assertThat(testEntityManager.getEntityManager().contains(empleado)).isFalse();
+        assertThat(empleadoRepository.proyectarPorId(Set.of("email"), 999999L)).isEmpty();
+    }
+
+    @DisplayName("Test para actualizar parcialmente un empleado")
+    @Test
+    void testActualizarParcialEmpleado(){
+        empleadoRepository.save(empleado);
+
+        //when
+        int filas = empleadoRepository.actualizarParcial(empleado.getId(), Empleado.builder().apellido("Epifanio").build(), null);
+        testEntityManager.clear();
+
+        //then
+        Empleado empleadoBD = empleadoRepository.findById(empleado.getId()).get();
+        assertThat(filas).isEqualTo(1);
+        assertThat(empleadoBD.getNombre()).isEqualTo("Andy");
+        assertThat(empleadoBD.getApellido()).isEqualTo("Epifanio");
+    }
+
     @DisplayName("Test para eliminar un emplleado")
     @Test
     void testEliminarEmpleado(){
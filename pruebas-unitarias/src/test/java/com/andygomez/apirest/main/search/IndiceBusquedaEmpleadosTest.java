@@ -0,0 +1,127 @@
+package com.andygomez.apirest.main.search;
+
+import com.andygomez.apirest.main.event.EmpleadoCambiadoEvent;
+import com.andygomez.apirest.main.model.Empleado;
+import com.andygomez.apirest.main.repository.EmpleadoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class IndiceBusquedaEmpleadosTest {
+
+    private IndiceBusquedaEmpleados indice;
+
+    @BeforeEach
+    void setup(){
+        indice = new IndiceBusquedaEmpleados();
+        indice.indexar(Empleado.builder().id(1L).nombre("José Luis").apellido("Gomez").email("jgomez@empresa.com").build());
+        indice.indexar(Empleado.builder().id(2L).nombre("Raul").apellido("Lopez").email("raul@empresa.com").build());
+        indice.indexar(Empleado.builder().id(3L).nombre("Rodolfo").apellido("Gonzalez").email("rodo@otra.com").build());
+    }
+
+    @DisplayName("Test para buscar por prefijo sin distinguir mayusculas ni acentos")
+    @Test
+    void testBuscarPorPrefijo(){
+        //when
+        List<Empleado> porNombre = indice.buscar("JOSE", 10);
+        List<Empleado> porSegundoNombre = indice.buscar("lu", 10);
+        List<Empleado> porApellido = indice.buscar("go", 10);
+        List<Empleado> porEmail = indice.buscar("raul@", 10);
+
+        //then
+        assertThat(porNombre).extracting(Empleado::getId).containsExactly(1L);
+        assertThat(porSegundoNombre).extracting(Empleado::getId).containsExactly(1L);
+        assertThat(porApellido).extracting(Empleado::getId).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(porEmail).extracting(Empleado::getId).containsExactly(2L);
+    }
+
+    @DisplayName("Test para limitar los resultados de la busqueda")
+    @Test
+    void testBuscarConLimite(){
+        //when
+        List<Empleado> resultado = indice.buscar("r", 1);
+
+        //then
+        assertThat(resultado).hasSize(1);
+    }
+
+    @DisplayName("Test para mantener el indice con los eventos de escritura")
+    @Test
+    void testActualizarYEliminar(){
+        //when
+        indice.alCambiarEmpleado(EmpleadoCambiadoEvent.actualizado(Empleado.builder().id(2L).apellido("Perez").build()));
+        indice.alCambiarEmpleado(EmpleadoCambiadoEvent.eliminado(3L));
+
+        //then
+        assertThat(indice.buscar("lopez", 10)).isEmpty();
+        assertThat(indice.buscar("perez", 10)).extracting(Empleado::getNombre).containsExactly("Raul");
+        assertThat(indice.buscar("rodolfo", 10)).isEmpty();
+        assertThat(indice.tamano()).isEqualTo(2);
+    }
+
+    @DisplayName("Test para no resucitar un empleado eliminado durante la carga")
+    @Test
+    void testEliminarDuranteLaCarga(){
+        //given
+        IndiceBusquedaEmpleados indiceNuevo = new IndiceBusquedaEmpleados();
+        Stream<Empleado> tabla = Stream.of(
+                        Empleado.builder().id(4L).nombre("Ana").apellido("Ruiz").email("ana@empresa.com").build(),
+                        Empleado.builder().id(5L).nombre("Beatriz").apellido("Diaz").email("bea@empresa.com").build())
+                //el 5 se borra cuando el cursor ya lo habia leido pero aun no se habia indexado
+                .peek(empleado -> {
+                    if (empleado.getId() == 4L) {
+                        indiceNuevo.alCambiarEmpleado(EmpleadoCambiadoEvent.eliminado(5L));
+                    }
+                });
+
+        //when
+        indiceNuevo.cargar(tabla);
+
+        //then
+        assertThat(indiceNuevo.buscar("beatriz", 10)).isEmpty();
+        assertThat(indiceNuevo.buscar("ana", 10)).extracting(Empleado::getId).containsExactly(4L);
+        assertThat(indiceNuevo.tamano()).isEqualTo(1);
+    }
+
+    @DisplayName("Test para indexar la fila completa cuando llega un PATCH durante la carga")
+    @Test
+    void testActualizarParcialDuranteLaCarga(){
+        //given
+        IndiceBusquedaEmpleados indiceNuevo = new IndiceBusquedaEmpleados();
+        EmpleadoRepository empleadoRepository = mock(EmpleadoRepository.class);
+        ReflectionTestUtils.setField(indiceNuevo, "empleadoRepository", empleadoRepository);
+        given(empleadoRepository.findById(5L)).willReturn(Optional.of(
+                Empleado.builder().id(5L).nombre("Beatriz").apellido("Perez").email("bea@empresa.com").version(1L).build()));
+        Stream<Empleado> tabla = Stream.of(
+                        Empleado.builder().id(4L).nombre("Ana").apellido("Ruiz").email("ana@empresa.com").build(),
+                        //el cursor ya habia leido el 5 con el apellido de antes del PATCH
+                        Empleado.builder().id(5L).nombre("Beatriz").apellido("Diaz").email("bea@empresa.com").build())
+                .peek(empleado -> {
+                    if (empleado.getId() == 4L) {
+                        indiceNuevo.alCambiarEmpleado(EmpleadoCambiadoEvent.actualizado(
+                                Empleado.builder().id(5L).apellido("Perez").version(1L).build()));
+                    }
+                });
+
+        //when
+        indiceNuevo.cargar(tabla);
+
+        //then
+        assertThat(indiceNuevo.buscar("diaz", 10)).isEmpty();
+        List<Empleado> porApellido = indiceNuevo.buscar("perez", 10);
+        assertThat(porApellido).extracting(Empleado::getId).containsExactly(5L);
+        assertThat(porApellido.get(0).getNombre()).isEqualTo("Beatriz");
+        assertThat(porApellido.get(0).getEmail()).isEqualTo("bea@empresa.com");
+        assertThat(indiceNuevo.tamano()).isEqualTo(2);
+    }
+
+}
@@ -0,0 +1,142 @@
+package com.andygomez.apirest.main.search;
+
+import com.andygomez.apirest.main.event.EmpleadoCambiadoEvent;
+import com.andygomez.apirest.main.exception.EmailDuplicadoException;
+import com.andygomez.apirest.main.model.Empleado;
+import com.andygomez.apirest.main.service.EmpleadoService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:indiceemail;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "empleados.indice-email.habilitado=true"
+})
+class IndiceEmailTest {
+
+    @Autowired
+    private EmpleadoService empleadoService;
+
+    @Autowired
+    private IndiceEmail indiceEmail;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estadisticas;
+
+    @BeforeEach
+    void setup(){
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @DisplayName("Test para buscar por email sin consultar la base de datos")
+    @Test
+    void testBuscarPorEmailSinSql(){
+        //given
+        Empleado empleado = empleadoService.saveEmpleado(Empleado.builder()
+                .nombre("Andy")
+                .apellido("Gomez")
+                .email("indice@a.a")
+                .build());
+        empleadoService.getEmpleadoById(empleado.getId());
+        estadisticas.clear();
+
+        //when
+        Empleado encontrado = empleadoService.getEmpleadoByEmail("indice@a.a").get();
+        boolean ausente = empleadoService.getEmpleadoByEmail("nadie@a.a").isEmpty();
+
+        //then
+        assertThat(indiceEmail.cargado()).isTrue();
+        assertThat(encontrado.getId()).isEqualTo(empleado.getId());
+        assertThat(ausente).isTrue();
+        assertThat(estadisticas.getPrepareStatementCount()).isZero();
+    }
+
+    @DisplayName("Test para rechazar un email duplicado sin intentar el insert")
+    @Test
+    void testDuplicadoSinSql(){
+        //given
+        Empleado empleado = empleadoService.saveEmpleado(Empleado.builder()
+                .nombre("Raul")
+                .apellido("Lopez")
+                .email("duplicado@a.a")
+                .build());
+        empleadoService.getEmpleadoById(empleado.getId());
+        estadisticas.clear();
+
+        //when
+        assertThrows(EmailDuplicadoException.class, () -> {
+            empleadoService.saveEmpleado(Empleado.builder()
+                    .nombre("Otro")
+                    .apellido("Lopez")
+                    .email("duplicado@a.a")
+                    .build());
+        });
+
+        //then
+        assertThat(estadisticas.getPrepareStatementCount()).isZero();
+    }
+
+    @DisplayName("Test para mantener el indice al cambiar el email y al eliminar")
+    @Test
+    void testActualizarYEliminar(){
+        //given
+        Empleado empleado = empleadoService.saveEmpleado(Empleado.builder()
+                .nombre("Patricio")
+                .apellido("Robles")
+                .email("antes@a.a")
+                .build());
+
+        //when
+        empleado.setEmail("despues@a.a");
+        empleadoService.updateEmpleado(empleado);
+
+        //then
+        assertThat(empleadoService.getEmpleadoByEmail("antes@a.a")).isEmpty();
+        assertThat(empleadoService.getEmpleadoByEmail("despues@a.a")).map(Empleado::getId).contains(empleado.getId());
+
+        //when
+        empleadoService.deleteEmpleado(empleado.getId());
+
+        //then
+        assertThat(indiceEmail.buscar("despues@a.a")).isEmpty();
+        assertThat(empleadoService.getEmpleadoByEmail("despues@a.a")).isEmpty();
+    }
+
+    @DisplayName("Test para no indexar un empleado borrado mientras se carga el indice")
+    @Test
+    void testEliminarDuranteLaCarga(){
+        //given
+        IndiceEmail indiceNuevo = new IndiceEmail(16);
+        Stream<Empleado> tabla = Stream.of(
+                        Empleado.builder().id(4L).nombre("Ana").apellido("Ruiz").email("ana@empresa.com").build(),
+                        Empleado.builder().id(5L).nombre("Beatriz").apellido("Diaz").email("bea@empresa.com").build())
+                //el 5 se borra cuando el cursor ya lo habia leido pero aun no se habia indexado
+                .peek(empleado -> {
+                    if (empleado.getId() == 4L) {
+                        indiceNuevo.alCambiarEmpleado(EmpleadoCambiadoEvent.eliminado(5L));
+                    }
+                });
+
+        //when
+        indiceNuevo.cargar(tabla);
+
+        //then
+        assertThat(indiceNuevo.buscar("bea@empresa.com")).isEmpty();
+        assertThat(indiceNuevo.buscar("ana@empresa.com")).hasValue(4L);
+        assertThat(indiceNuevo.tamano()).isEqualTo(1);
+    }
+
+}
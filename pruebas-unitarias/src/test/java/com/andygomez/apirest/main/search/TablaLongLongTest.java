@@ -0,0 +1,74 @@
+package com.andygomez.apirest.main.search;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TablaLongLongTest {
+
+    @DisplayName("Test para crecer la tabla sin perder entradas")
+    @Test
+    void testCrecerSinPerderEntradas(){
+        //given
+        TablaLongLong tabla = new TablaLongLong(16);
+        long bytesIniciales = tabla.bytesFueraDelHeap();
+
+        //when
+        for (long clave = 1; clave <= 10_000; clave++) {
+            tabla.poner(clave, clave * 10);
+        }
+
+        //then
+        assertThat(tabla.tamano()).isEqualTo(10_000);
+        assertThat(tabla.bytesFueraDelHeap()).isGreaterThan(bytesIniciales);
+        for (long clave = 1; clave <= 10_000; clave++) {
+            assertThat(tabla.obtener(clave, -1)).isEqualTo(clave * 10);
+        }
+        assertThat(tabla.obtener(10_001, -1)).isEqualTo(-1);
+    }
+
+    @DisplayName("Test para quitar entradas sin romper los sondeos de las demas")
+    @Test
+    void testQuitarYReutilizarHuecos(){
+        //given
+        TablaLongLong tabla = new TablaLongLong(1000);
+        for (long clave = 1; clave <= 500; clave++) {
+            tabla.poner(clave, clave);
+        }
+        long bytes = tabla.bytesFueraDelHeap();
+
+        //when
+        for (long clave = 1; clave <= 500; clave += 2) {
+            assertThat(tabla.quitar(clave, -1)).isEqualTo(clave);
+        }
+        //altas y bajas continuas: las borradas se recolocan en el mismo tamano
+        for (long clave = 1_000; clave < 100_000; clave++) {
+            tabla.poner(clave, clave);
+            tabla.quitar(clave, -1);
+        }
+
+        //then
+        assertThat(tabla.tamano()).isEqualTo(250);
+        assertThat(tabla.bytesFueraDelHeap()).isEqualTo(bytes);
+        assertThat(tabla.obtener(1, -1)).isEqualTo(-1);
+        assertThat(tabla.obtener(2, -1)).isEqualTo(2);
+        assertThat(tabla.quitar(1, -1)).isEqualTo(-1);
+    }
+
+    @DisplayName("Test para rechazar las claves reservadas")
+    @Test
+    void testClavesReservadas(){
+        //given
+        TablaLongLong tabla = new TablaLongLong(16);
+
+        //when
+        //then
+        assertThrows(IllegalArgumentException.class, () -> tabla.poner(TablaLongLong.LIBRE, 1));
+        assertThrows(IllegalArgumentException.class, () -> tabla.poner(TablaLongLong.BORRADA, 1));
+        tabla.poner(-1, 7);
+        assertThat(tabla.obtener(-1, 0)).isEqualTo(7);
+    }
+
+}
@@ -0,0 +1,170 @@
+package com.andygomez.apirest.main.service;
+
+import com.andygomez.apirest.main.cache.EmpleadoCache;
+import com.andygomez.apirest.main.metrics.EmpleadoMetricas;
+import com.andygomez.apirest.main.model.Empleado;
+import com.andygomez.apirest.main.repository.EmpleadoRepository;
+import com.andygomez.apirest.main.service.Impl.EmpleadoServiceImpl;
+import com.andygomez.apirest.main.singleflight.CoalescedorLecturas;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class EmpleadoServiceCoalescenciaTest {
+
+    private static final int HILOS = 16;
+
+    @Mock
+    private EmpleadoRepository empleadoRepository;
+
+    @Spy
+    private EmpleadoCache empleadoCache = EmpleadoCache.deshabilitada();
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @Spy
+    private EmpleadoMetricas empleadoMetricas = new EmpleadoMetricas(registry);
+
+    @Spy
+    private CoalescedorLecturas coalescedor = new CoalescedorLecturas(empleadoMetricas);
+
+    @InjectMocks
+    private EmpleadoServiceImpl empleadoService;
+
+    @DisplayName("Test para compartir una sola consulta entre lecturas simultaneas del mismo empleado")
+    @Test
+    void testLecturasSimultaneasPorId() throws Exception {
+        //given
+        CountDownLatch liberar = new CountDownLatch(1);
+        given(empleadoRepository.findById(1L)).willAnswer(invocacion -> {
+            liberar.await(10, TimeUnit.SECONDS);
+            return Optional.of(Empleado.builder().id(1L).nombre("Andy").apellido("Gomez").email("a@a.a").build());
+        });
+
+        //when
+        List<Empleado> leidos = enParalelo(() -> empleadoService.getEmpleadoById(1L).get(), liberar);
+
+        //then
+        verify(empleadoRepository, times(1)).findById(1L);
+        assertThat(leidos).extracting(Empleado::getEmail).containsOnly("a@a.a");
+        assertThat(contar("getEmpleadoById", "consulta")).isEqualTo(1);
+        assertThat(contar("getEmpleadoById", "compartida")).isEqualTo(HILOS - 1);
+    }
+
+    @DisplayName("Test para compartir un solo findAll entre listados simultaneos")
+    @Test
+    void testListadosSimultaneos() throws Exception {
+        //given
+        CountDownLatch liberar = new CountDownLatch(1);
+        given(empleadoRepository.findAll()).willAnswer(invocacion -> {
+            liberar.await(10, TimeUnit.SECONDS);
+            return List.of(Empleado.builder().id(1L).nombre("Andy").apellido("Gomez").email("a@a.a").build());
+        });
+
+        //when
+        List<List<Empleado>> listados = enParalelo(() -> empleadoService.getAllEmpleado(), liberar);
+
+        //then
+        verify(empleadoRepository, times(1)).findAll();
+        assertThat(listados).allSatisfy(listado -> assertThat(listado).hasSize(1));
+        assertThat(coalescedor.enVuelo()).isZero();
+    }
+
+    @DisplayName("Test para no coalescer por id cuando la cache ya junta las cargas")
+    @Test
+    void testLecturaPorIdConCache() {
+        //given
+        given(empleadoCache.isHabilitado()).willReturn(true);
+        given(empleadoRepository.findById(1L)).willReturn(Optional.of(Empleado.builder().id(1L).email("a@a.a").build()));
+
+        //when
+        Optional<Empleado> empleado = empleadoService.getEmpleadoById(1L);
+
+        //then
+        assertThat(empleado).isPresent();
+        verify(coalescedor, never()).ejecutar(any(), any(), any(), any());
+    }
+
+    @DisplayName("Test para no coalescer lecturas dentro de una transaccion de escritura")
+    @Test
+    void testLecturaEnTransaccionDeEscritura() {
+        //given
+        given(empleadoRepository.findByEmail("a@a.a")).willReturn(Optional.empty());
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+
+        //when
+        try {
+            assertThat(empleadoService.getEmpleadoByEmail("a@a.a")).isEmpty();
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+
+        //then
+        verify(empleadoRepository).findByEmail("a@a.a");
+        verify(coalescedor, never()).ejecutar(any(), any(), any(), any());
+    }
+
+    //lanza HILOS llamadas y suelta la consulta cuando todas menos la primera ya estan esperando su resultado
+    private <T> List<T> enParalelo(Callable<T> llamada, CountDownLatch liberar) throws Exception {
+        ExecutorService ejecutor = Executors.newFixedThreadPool(HILOS);
+        try {
+            List<Future<T>> tareas = new ArrayList<>();
+            for (int i = 0; i < HILOS; i++) {
+                tareas.add(ejecutor.submit(llamada));
+            }
+            long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (compartidas() < HILOS - 1 && System.nanoTime() < limite) {
+                Thread.sleep(1);
+            }
+            liberar.countDown();
+            List<T> resultados = new ArrayList<>();
+            for (Future<T> tarea : tareas) {
+                resultados.add(tarea.get(10, TimeUnit.SECONDS));
+            }
+            return resultados;
+        } finally {
+            ejecutor.shutdown();
+        }
+    }
+
+    private double compartidas() {
+        return registry.find("empleados.lecturas.coalescibles").tag("resultado", "compartida").counters().stream()
+                .mapToDouble(contador -> contador.count())
+                .sum();
+    }
+
+    private double contar(String operacion, String resultado) {
+        return registry.get("empleados.lecturas.coalescibles")
+                .tag("operacion", operacion)
+                .tag("resultado", resultado)
+                .counter()
+                .count();
+    }
+
+}
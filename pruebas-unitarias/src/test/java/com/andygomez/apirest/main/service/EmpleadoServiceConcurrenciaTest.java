@@ -0,0 +1,79 @@
+package com.andygomez.apirest.main.service;
+
+import com.andygomez.apirest.main.exception.EmailDuplicadoException;
+import com.andygomez.apirest.main.model.Empleado;
+import com.andygomez.apirest.main.repository.EmpleadoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:concurrencia;DB_CLOSE_DELAY=-1")
+class EmpleadoServiceConcurrenciaTest {
+
+    private static final int HILOS = 16;
+
+    @Autowired
+    private EmpleadoService empleadoService;
+
+    @Autowired
+    private EmpleadoRepository empleadoRepository;
+
+    @AfterEach
+    void limpiar(){
+        empleadoRepository.deleteAll();
+    }
+
+    @DisplayName("Test para guardar en paralelo empleados con el mismo email")
+    @Test
+    void testGuardarEmpleadosDuplicadosEnParalelo() throws Exception {
+        //given
+        ExecutorService ejecutor = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch salida = new CountDownLatch(1);
+        AtomicInteger guardados = new AtomicInteger();
+        AtomicInteger duplicados = new AtomicInteger();
+        List<Future<?>> tareas = new ArrayList<>();
+
+        //when
+        for (int i = 0; i < HILOS; i++) {
+            String nombre = "Andy" + i;
+            tareas.add(ejecutor.submit(() -> {
+                salida.await();
+                try {
+                    empleadoService.saveEmpleado(Empleado.builder()
+                            .nombre(nombre)
+                            .apellido("Gomez")
+                            .email("duplicado@a.a")
+                            .build());
+                    guardados.incrementAndGet();
+                } catch (EmailDuplicadoException e) {
+                    duplicados.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        salida.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get(30, TimeUnit.SECONDS);
+        }
+        ejecutor.shutdown();
+
+        //then
+        assertThat(guardados.get()).isEqualTo(1);
+        assertThat(duplicados.get()).isEqualTo(HILOS - 1);
+        assertThat(empleadoRepository.findAll()).hasSize(1);
+    }
+
+}
@@ -0,0 +1,157 @@
+package com.andygomez.apirest.main.service;
+
+import com.andygomez.apirest.main.dto.OperacionEmpleado;
+import com.andygomez.apirest.main.dto.ResultadoOperacion;
+import com.andygomez.apirest.main.event.EmpleadoCambiadoEvent;
+import com.andygomez.apirest.main.model.CambioEmpleado;
+import com.andygomez.apirest.main.model.Empleado;
+import com.andygomez.apirest.main.repository.CambioEmpleadoRepository;
+import com.andygomez.apirest.main.repository.EmpleadoRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:lote;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "empleados.bulk.tamano-lote=50"
+})
+class EmpleadoServiceLoteTest {
+
+    @Autowired
+    private EmpleadoService empleadoService;
+
+    @Autowired
+    private EmpleadoRepository empleadoRepository;
+
+    @Autowired
+    private CambioEmpleadoRepository cambioEmpleadoRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics estadisticas;
+
+    @BeforeEach
+    void setup(){
+        estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+    }
+
+    @AfterEach
+    void limpiar(){
+        empleadoRepository.deleteAll();
+    }
+
+    @DisplayName("Test para insertar un lote en sentencias agrupadas")
+    @Test
+    void testInsertarLote(){
+        //given
+        List<OperacionEmpleado> operaciones = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            operaciones.add(upsert(null, "e" + i + "@a.a"));
+        }
+
+        //when
+        List<ResultadoOperacion> resultados = procesar(operaciones);
+
+        //then
+        assertThat(resultados).hasSize(120);
+        assertThat(resultados).allSatisfy(resultado -> assertThat(resultado.getStatus()).isEqualTo(201));
+        assertThat(empleadoRepository.count()).isEqualTo(120);
+        //cada alta escribe ademas su fila en empleados_cambios; aqui solo cuentan las de empleados
+        assertThat(estadisticas.getEntityStatistics(Empleado.class.getName()).getInsertCount()).isEqualTo(120);
+        assertThat(estadisticas.getPrepareStatementCount()).isLessThan(30);
+    }
+
+    @DisplayName("Test para aislar los elementos con email duplicado de un lote")
+    @Test
+    void testLoteConEmailDuplicado(){
+        //given
+        List<OperacionEmpleado> operaciones = List.of(
+                upsert(null, "a@a.a"),
+                upsert(null, "b@b.b"),
+                upsert(null, "a@a.a"));
+
+        //when
+        List<ResultadoOperacion> resultados = procesar(operaciones);
+
+        //then
+        assertThat(resultados).extracting(ResultadoOperacion::getStatus).containsExactly(201, 201, 409);
+        assertThat(empleadoRepository.count()).isEqualTo(2);
+    }
+
+    @DisplayName("Test para actualizar y eliminar en un lote")
+    @Test
+    void testActualizarYEliminarLote(){
+        //given
+        Empleado empleado1 = empleadoRepository.save(Empleado.builder().nombre("Andy").apellido("Gomez").email("a@a.a").build());
+        Empleado empleado2 = empleadoRepository.save(Empleado.builder().nombre("Raul").apellido("Perez").email("r@r.r").build());
+        List<OperacionEmpleado> operaciones = List.of(
+                upsert(empleado1.getId(), "nuevo@a.a"),
+                OperacionEmpleado.builder().op(OperacionEmpleado.Tipo.DELETE).id(empleado2.getId()).build(),
+                OperacionEmpleado.builder().op(OperacionEmpleado.Tipo.DELETE).id(999999L).build(),
+                OperacionEmpleado.builder().op(OperacionEmpleado.Tipo.UPSERT).build());
+
+        //when
+        List<ResultadoOperacion> resultados = procesar(operaciones);
+
+        //then
+        assertThat(resultados).extracting(ResultadoOperacion::getStatus).containsExactly(200, 200, 404, 400);
+        assertThat(empleadoRepository.findById(empleado1.getId()).get().getEmail()).isEqualTo("nuevo@a.a");
+        assertThat(empleadoRepository.findById(empleado2.getId())).isEmpty();
+    }
+
+    @DisplayName("Test para insertar con upsert un id inexistente y registrar la version ya incrementada")
+    @Test
+    void testUpsertIdInexistenteYVersionDelCambio(){
+        //given
+        Empleado empleado = empleadoRepository.save(Empleado.builder().nombre("Andy").apellido("Gomez").email("a@a.a").build());
+        long desde = cambioEmpleadoRepository.buscarUltimaSecuencia();
+        List<OperacionEmpleado> operaciones = List.of(
+                upsert(empleado.getId(), "nuevo@a.a"),
+                upsert(999999L, "otro@a.a"));
+
+        //when
+        List<ResultadoOperacion> resultados = procesar(operaciones);
+
+        //then
+        assertThat(resultados).extracting(ResultadoOperacion::getStatus).containsExactly(200, 201);
+        assertThat(resultados.get(1).getId()).isNotNull().isNotEqualTo(999999L);
+        assertThat(empleadoRepository.findById(resultados.get(1).getId())).isPresent();
+        Long versionActual = empleadoRepository.findById(empleado.getId()).get().getVersion();
+        List<CambioEmpleado> cambios = cambioEmpleadoRepository.findBySeqGreaterThanAndSeqLessThanEqualOrderBySeqAsc(
+                desde, Long.MAX_VALUE, Pageable.unpaged());
+        assertThat(cambios).filteredOn(cambio -> cambio.getTipo() == EmpleadoCambiadoEvent.Tipo.ACTUALIZADO)
+                .singleElement()
+                .extracting(CambioEmpleado::getVersion)
+                .isEqualTo(versionActual);
+    }
+
+    private List<ResultadoOperacion> procesar(List<OperacionEmpleado> operaciones){
+        List<ResultadoOperacion> resultados = new ArrayList<>();
+        empleadoService.procesarLote(operaciones.iterator(), resultados::add);
+        return resultados;
+    }
+
+    private static OperacionEmpleado upsert(Long id, String email){
+        return OperacionEmpleado.builder()
+                .op(OperacionEmpleado.Tipo.UPSERT)
+                .id(id)
+                .empleado(Empleado.builder().nombre("Andy").apellido("Gomez").email(email).build())
+                .build();
+    }
+
+}
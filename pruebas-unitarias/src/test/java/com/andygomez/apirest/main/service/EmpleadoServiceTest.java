@@ -6,17 +6,27 @@ import static org.mockito.BDDMockito.given;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import com.andygomez.apirest.main.cache.EmpleadoCache;
+import com.andygomez.apirest.main.event.EmpleadoCambiadoEvent;
 import com.andygomez.apirest.main.exception.ResourceNotFoundException;
+import com.andygomez.apirest.main.exception.VersionConflictoException;
+import com.andygomez.apirest.main.metrics.EmpleadoMetricas;
 import com.andygomez.apirest.main.model.Empleado;
 import com.andygomez.apirest.main.repository.EmpleadoRepository;
 import com.andygomez.apirest.main.service.Impl.EmpleadoServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Collections;
 import java.util.List;
@@ -24,6 +34,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.BDDMockito.willThrow;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,6 +43,15 @@ class EmpleadoServiceTest {
     @Mock
     private EmpleadoRepository empleadoRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private EmpleadoCache empleadoCache = EmpleadoCache.deshabilitada();
+
+    @Spy
+    private EmpleadoMetricas empleadoMetricas = new EmpleadoMetricas(new SimpleMeterRegistry());
+
     @InjectMocks
     private EmpleadoServiceImpl empleadoService;
 
@@ -51,23 +71,24 @@ class EmpleadoServiceTest {
     @Test
     void testGuardarEmpleado(){
         //given
-        given(empleadoRepository.findByEmail(empleado.getEmail()))
-                .willReturn(Optional.empty());
-        given(empleadoRepository.save(empleado)).willReturn(empleado);
+        given(empleadoRepository.saveAndFlush(any(Empleado.class))).willReturn(empleado);
 
         //when
         Empleado empleadoGuardado = empleadoService.saveEmpleado(empleado);
 
         //then
         assertThat(empleadoGuardado).isNotNull();
+        verify(empleadoRepository).saveAndFlush(argThat(nuevo -> nuevo.getId() == null && nuevo.getVersion() == null
+                && nuevo.getEmail().equals(empleado.getEmail())));
+        verify(eventPublisher).publishEvent(EmpleadoCambiadoEvent.creado(empleado));
     }
 
     @DisplayName("Test para guardar empleado con ThrowException")
     @Test
     void testGuardarEmpleadoConThrowException(){
         //given
-        given(empleadoRepository.findByEmail(empleado.getEmail()))
-                .willReturn(Optional.of(empleado));
+        given(empleadoRepository.saveAndFlush(any(Empleado.class)))
+                .willThrow(new DataIntegrityViolationException("could not execute statement; constraint [" + Empleado.INDICE_EMAIL + "]"));
 
         //when
         assertThrows(ResourceNotFoundException.class,() -> {
@@ -75,7 +96,23 @@ class EmpleadoServiceTest {
         });
 
         //then
-        verify(empleadoRepository,never()).save(any(Empleado.class));
+        verify(empleadoRepository,never()).findByEmail(any(String.class));
+        verify(empleadoMetricas).registrarEmailDuplicado();
+    }
+
+    @DisplayName("Test para guardar empleado con otra violacion de integridad")
+    @Test
+    void testGuardarEmpleadoConOtraViolacion(){
+        //given
+        given(empleadoRepository.saveAndFlush(any(Empleado.class)))
+                .willThrow(new DataIntegrityViolationException("NULL not allowed for column NOMBRE"));
+
+        //when
+        //then
+        assertThrows(DataIntegrityViolationException.class,() -> {
+            empleadoService.saveEmpleado(empleado);
+        });
+        verify(empleadoMetricas,never()).registrarEmailDuplicado();
     }
 
     @DisplayName("Test para listar los empleados")
@@ -136,7 +173,7 @@ class EmpleadoServiceTest {
     @Test
     void testActualizarEmpleado(){
         //given
-        given(empleadoRepository.save(empleado)).willReturn(empleado);
+        given(empleadoRepository.saveAndFlush(empleado)).willReturn(empleado);
         empleado.setEmail("a@a.a");
         empleado.setNombre("Andy");
 
@@ -148,19 +185,196 @@ class EmpleadoServiceTest {
         assertThat(empleadoActualizado.getNombre()).isEqualTo("Andy");
     }
 
+    @DisplayName("Test para actualizar un empleado con una sola sentencia")
+    @Test
+    void testActualizarEmpleadoPorId(){
+        //given
+        given(empleadoRepository.actualizarEmpleado(1L, "Raul", "Lopez", "l@l.l", null)).willReturn(1);
+        Empleado datos = Empleado.builder().nombre("Raul").apellido("Lopez").email("l@l.l").build();
+
+        //when
+        Optional<Empleado> empleadoActualizado = empleadoService.updateEmpleado(1L, datos, null);
+
+        //then
+        assertThat(empleadoActualizado).isPresent();
+        assertThat(empleadoActualizado.get().getId()).isEqualTo(1L);
+        assertThat(empleadoActualizado.get().getVersion()).isNull();
+        verify(empleadoRepository, never()).findById(any());
+        verify(eventPublisher).publishEvent(EmpleadoCambiadoEvent.actualizado(empleadoActualizado.get()));
+    }
+
+    @DisplayName("Test para actualizar un empleado inexistente")
+    @Test
+    void testActualizarEmpleadoPorIdNoEncontrado(){
+        //given
+        given(empleadoRepository.actualizarEmpleado(1L, "Raul", "Lopez", "l@l.l", null)).willReturn(0);
+        Empleado datos = Empleado.builder().nombre("Raul").apellido("Lopez").email("l@l.l").build();
+
+        //when
+        Optional<Empleado> empleadoActualizado = empleadoService.updateEmpleado(1L, datos, null);
+
+        //then
+        assertThat(empleadoActualizado).isEmpty();
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @DisplayName("Test para actualizar un empleado con If-Match sin releer la version")
+    @Test
+    void testActualizarEmpleadoConVersion(){
+        //given
+        given(empleadoRepository.actualizarEmpleado(1L, "Raul", "Lopez", "l@l.l", 2L)).willReturn(1);
+        Empleado datos = Empleado.builder().nombre("Raul").apellido("Lopez").email("l@l.l").build();
+
+        //when
+        Optional<Empleado> empleadoActualizado = empleadoService.updateEmpleado(1L, datos, 2L);
+
+        //then
+        assertThat(empleadoActualizado.get().getVersion()).isEqualTo(3L);
+        verify(empleadoRepository, never()).findById(any());
+    }
+
+    @DisplayName("Test para actualizar un empleado con una version obsoleta")
+    @Test
+    void testActualizarEmpleadoVersionObsoleta(){
+        //given
+        given(empleadoRepository.actualizarEmpleado(1L, "Raul", "Lopez", "l@l.l", 2L)).willReturn(0);
+        given(empleadoRepository.existsById(1L)).willReturn(true);
+        Empleado datos = Empleado.builder().nombre("Raul").apellido("Lopez").email("l@l.l").build();
+
+        //when
+        assertThrows(VersionConflictoException.class,() -> {
+            empleadoService.updateEmpleado(1L, datos, 2L);
+        });
+
+        //then
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @DisplayName("Test para actualizar sobre la entidad gestionada con la cache de segundo nivel")
+    @Test
+    void testActualizarEmpleadoGestionado(){
+        //given
+        conCacheSegundoNivel();
+        given(empleadoRepository.findById(1L)).willReturn(Optional.of(empleado));
+        Empleado datos = Empleado.builder().nombre("Raul").apellido("Lopez").email("l@l.l").build();
+
+        //when
+        Optional<Empleado> empleadoActualizado = empleadoService.updateEmpleado(1L, datos, null);
+
+        //then
+        assertThat(empleadoActualizado).containsSame(empleado);
+        assertThat(empleado.getNombre()).isEqualTo("Raul");
+        assertThat(empleado.getEmail()).isEqualTo("l@l.l");
+        verify(empleadoRepository).flush();
+        verify(eventPublisher).publishEvent(EmpleadoCambiadoEvent.actualizado(empleado));
+    }
+
+    @DisplayName("Test para actualizar un empleado gestionado inexistente")
+    @Test
+    void testActualizarEmpleadoGestionadoNoEncontrado(){
+        //given
+        conCacheSegundoNivel();
+        given(empleadoRepository.findById(1L)).willReturn(Optional.empty());
+        Empleado datos = Empleado.builder().nombre("Raul").apellido("Lopez").email("l@l.l").build();
+
+        //when
+        Optional<Empleado> empleadoActualizado = empleadoService.updateEmpleado(1L, datos, null);
+
+        //then
+        assertThat(empleadoActualizado).isEmpty();
+        verify(empleadoRepository, never()).flush();
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @DisplayName("Test para actualizar parcialmente solo los campos recibidos")
+    @Test
+    void testModificarEmpleadoConVersion(){
+        //given
+        conCacheSegundoNivel();
+        empleado.setVersion(2L);
+        given(empleadoRepository.findById(1L)).willReturn(Optional.of(empleado));
+
+        //when
+        Optional<Empleado> empleadoModificado = empleadoService.patchEmpleado(1L, Empleado.builder().apellido("Lopez").build(), 2L);
+
+        //then
+        assertThat(empleadoModificado).isPresent();
+        assertThat(empleado.getNombre()).isEqualTo("Andy");
+        assertThat(empleado.getApellido()).isEqualTo("Lopez");
+        verify(empleadoRepository).flush();
+        verify(eventPublisher).publishEvent(EmpleadoCambiadoEvent.actualizado(Empleado.builder().id(1L).apellido("Lopez").version(2L).build()));
+    }
+
+    @DisplayName("Test para actualizar un empleado gestionado con una version obsoleta")
+    @Test
+    void testActualizarEmpleadoGestionadoVersionObsoleta(){
+        //given
+        conCacheSegundoNivel();
+        empleado.setVersion(3L);
+        given(empleadoRepository.findById(1L)).willReturn(Optional.of(empleado));
+        Empleado datos = Empleado.builder().nombre("Raul").apellido("Lopez").email("l@l.l").build();
+
+        //when
+        assertThrows(VersionConflictoException.class,() -> {
+            empleadoService.updateEmpleado(1L, datos, 2L);
+        });
+
+        //then
+        assertThat(empleado.getNombre()).isEqualTo("Andy");
+        verify(empleadoRepository, never()).flush();
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @DisplayName("Test para responder con conflicto si otra peticion modifica el empleado antes del flush")
+    @Test
+    void testActualizarEmpleadoModificadoConcurrentemente(){
+        //given
+        conCacheSegundoNivel();
+        given(empleadoRepository.findById(1L)).willReturn(Optional.of(empleado));
+        willThrow(new ObjectOptimisticLockingFailureException(Empleado.class, 1L)).given(empleadoRepository).flush();
+        Empleado datos = Empleado.builder().nombre("Raul").apellido("Lopez").email("l@l.l").build();
+
+        //when
+        assertThrows(VersionConflictoException.class,() -> {
+            empleadoService.updateEmpleado(1L, datos, null);
+        });
+
+        //then
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
     @DisplayName("Test para eliminar un empleado")
     @Test
     void testEliminarEmpleado(){
         //given
         long empleadoId = 1L;
-        willDoNothing().given(empleadoRepository).deleteById(empleadoId);
+        given(empleadoRepository.findById(empleadoId)).willReturn(Optional.of(empleado));
+        willDoNothing().given(empleadoRepository).delete(empleado);
 
         //when
         empleadoService.deleteEmpleado(empleadoId);
 
         //then
-        verify(empleadoRepository, times(1)).deleteById(empleadoId);
+        verify(empleadoRepository, times(1)).delete(empleado);
+        verify(eventPublisher).publishEvent(EmpleadoCambiadoEvent.eliminado(empleadoId));
+    }
+
+    @DisplayName("Test para eliminar un empleado inexistente sin registrar el cambio")
+    @Test
+    void testEliminarEmpleadoInexistente(){
+        //given
+        given(empleadoRepository.findById(99L)).willReturn(Optional.empty());
+
+        //when
+        empleadoService.deleteEmpleado(99L);
+
+        //then
+        verify(empleadoRepository, never()).delete(any(Empleado.class));
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
     }
 
+    private void conCacheSegundoNivel(){
+        ReflectionTestUtils.setField(empleadoService, "cacheSegundoNivel", true);
+    }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,125 @@
+package com.andygomez.apirest.main.singleflight;
+
+import com.andygomez.apirest.main.event.EmpleadoCambiadoEvent;
+import com.andygomez.apirest.main.metrics.EmpleadoMetricas;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CoalescedorLecturasTest {
+
+    private static final int HILOS = 8;
+
+    private MeterRegistry registry;
+    private CoalescedorLecturas coalescedor;
+    private ExecutorService ejecutor;
+
+    @BeforeEach
+    void setup(){
+        registry = new SimpleMeterRegistry();
+        coalescedor = new CoalescedorLecturas(new EmpleadoMetricas(registry));
+        ejecutor = Executors.newFixedThreadPool(HILOS);
+    }
+
+    @AfterEach
+    void limpiar(){
+        ejecutor.shutdownNow();
+    }
+
+    @DisplayName("Test para propagar el error de la consulta a todas las llamadas que la compartian")
+    @Test
+    void testPropagarError() throws Exception {
+        //given
+        CountDownLatch liberar = new CountDownLatch(1);
+        AtomicInteger consultas = new AtomicInteger();
+        Supplier<String> lectura = () -> {
+            consultas.incrementAndGet();
+            esperar(liberar);
+            throw new IllegalStateException("base caida");
+        };
+        List<Future<String>> llamadas = new ArrayList<>();
+
+        //when
+        for (int i = 0; i < HILOS; i++) {
+            llamadas.add(ejecutor.submit(() -> coalescedor.ejecutar("getAllEmpleado", 1L, lectura, UnaryOperator.identity())));
+        }
+        esperarCompartidas(HILOS - 1);
+        liberar.countDown();
+
+        //then
+        for (Future<String> llamada : llamadas) {
+            Exception error = assertThrows(Exception.class, () -> llamada.get(10, TimeUnit.SECONDS));
+            assertThat(error.getCause()).isInstanceOf(IllegalStateException.class).hasMessage("base caida");
+        }
+        assertThat(consultas.get()).isEqualTo(1);
+        assertThat(coalescedor.enVuelo()).isZero();
+    }
+
+    @DisplayName("Test para no unir a una consulta empezada antes de una escritura")
+    @Test
+    void testEscrituraCortaLaCoalescencia() throws Exception {
+        //given
+        CountDownLatch liberar = new CountDownLatch(1);
+        AtomicInteger consultas = new AtomicInteger();
+        Supplier<Integer> lectura = () -> {
+            int numero = consultas.incrementAndGet();
+            if (numero == 1) {
+                esperar(liberar);
+            }
+            return numero;
+        };
+        Future<Integer> anterior = ejecutor.submit(() -> coalescedor.ejecutar("getEmpleadoById", 1L, lectura, UnaryOperator.identity()));
+        while (coalescedor.enVuelo() == 0) {
+            Thread.sleep(1);
+        }
+
+        //when
+        coalescedor.alCambiarEmpleado(EmpleadoCambiadoEvent.eliminado(1L));
+        Integer posterior = coalescedor.ejecutar("getEmpleadoById", 1L, lectura, UnaryOperator.identity());
+        liberar.countDown();
+
+        //then
+        assertThat(posterior).isEqualTo(2);
+        assertThat(anterior.get(10, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(compartidas()).isZero();
+    }
+
+    private void esperarCompartidas(int esperadas) throws InterruptedException {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (compartidas() < esperadas && System.nanoTime() < limite) {
+            Thread.sleep(1);
+        }
+    }
+
+    private double compartidas() {
+        return registry.find("empleados.lecturas.coalescibles").tag("resultado", "compartida").counters().stream()
+                .mapToDouble(contador -> contador.count())
+                .sum();
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,116 @@
+package com.andygomez.apirest.main.writebehind;
+
+import com.andygomez.apirest.main.dto.EstadoEscritura;
+import com.andygomez.apirest.main.dto.OperacionEmpleado;
+import com.andygomez.apirest.main.dto.ResultadoOperacion;
+import com.andygomez.apirest.main.model.Empleado;
+import com.andygomez.apirest.main.service.EmpleadoService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.willAnswer;
+
+@ExtendWith(MockitoExtension.class)
+class ColaEscrituraEmpleadosTest {
+
+    private static final int CAPACIDAD = 3;
+
+    @Mock
+    private EmpleadoService empleadoService;
+
+    private ColaEscrituraEmpleados colaEscritura;
+
+    private final CountDownLatch escribiendo = new CountDownLatch(1);
+    private final CountDownLatch continuar = new CountDownLatch(1);
+
+    @BeforeEach
+    void setup(){
+        colaEscritura = new ColaEscrituraEmpleados(empleadoService, CAPACIDAD, 10, Duration.ofMinutes(1), Duration.ofSeconds(10));
+        willAnswer(invocation -> {
+            escribiendo.countDown();
+            continuar.await(10, TimeUnit.SECONDS);
+            Iterator<OperacionEmpleado> operaciones = invocation.getArgument(0);
+            Consumer<ResultadoOperacion> consumidor = invocation.getArgument(1);
+            int indice = 0;
+            while (operaciones.hasNext()) {
+                consumidor.accept(ResultadoOperacion.exito(indice, operaciones.next(), 100L + indice, HttpStatus.CREATED));
+                indice++;
+            }
+            return null;
+        }).given(empleadoService).procesarLote(any(), any());
+        colaEscritura.start();
+    }
+
+    @AfterEach
+    void limpiar(){
+        continuar.countDown();
+        if(colaEscritura.isRunning()){
+            colaEscritura.stop();
+        }
+    }
+
+    @DisplayName("Test para rechazar altas cuando la cola esta llena")
+    @Test
+    void testRechazarConColaLlena() throws InterruptedException{
+        //given
+        colaEscritura.encolar(empleado(0));
+        escribiendo.await(5, TimeUnit.SECONDS);
+
+        //when
+        List<Optional<EstadoEscritura>> aceptadas = new ArrayList<>();
+        for (int i = 1; i <= CAPACIDAD; i++) {
+            aceptadas.add(colaEscritura.encolar(empleado(i)));
+        }
+        Optional<EstadoEscritura> rechazada = colaEscritura.encolar(empleado(CAPACIDAD + 1));
+
+        //then
+        assertThat(aceptadas).allSatisfy(estado -> assertThat(estado).isPresent());
+        assertThat(rechazada).isEmpty();
+        assertThat(colaEscritura.pendientes()).isEqualTo(CAPACIDAD);
+    }
+
+    @DisplayName("Test para escribir lo pendiente al detener la cola")
+    @Test
+    void testVaciarAlDetener() throws InterruptedException{
+        //given
+        EstadoEscritura primera = colaEscritura.encolar(empleado(0)).get();
+        escribiendo.await(5, TimeUnit.SECONDS);
+        EstadoEscritura segunda = colaEscritura.encolar(empleado(1)).get();
+        assertThat(colaEscritura.estado(segunda.getSeguimiento()).get().getEstado()).isEqualTo(EstadoEscritura.Estado.PENDIENTE);
+
+        //when
+        continuar.countDown();
+        colaEscritura.stop();
+
+        //then
+        assertThat(colaEscritura.pendientes()).isZero();
+        assertThat(colaEscritura.encolar(empleado(2))).isEmpty();
+        assertThat(colaEscritura.estado(primera.getSeguimiento()).get().getEstado()).isEqualTo(EstadoEscritura.Estado.COMPLETADA);
+        EstadoEscritura estadoSegunda = colaEscritura.estado(segunda.getSeguimiento()).get();
+        assertThat(estadoSegunda.getEstado()).isEqualTo(EstadoEscritura.Estado.COMPLETADA);
+        assertThat(estadoSegunda.getStatus()).isEqualTo(201);
+        assertThat(estadoSegunda.getId()).isNotNull();
+    }
+
+    private static Empleado empleado(int i){
+        return Empleado.builder().nombre("Nombre" + i).apellido("Apellido" + i).email("e" + i + "@a.a").build();
+    }
+
+}
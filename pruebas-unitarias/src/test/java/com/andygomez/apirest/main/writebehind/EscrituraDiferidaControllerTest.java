@@ -0,0 +1,82 @@
+package com.andygomez.apirest.main.writebehind;
+
+import com.andygomez.apirest.main.model.Empleado;
+import com.andygomez.apirest.main.service.EmpleadoService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:escritura-diferida;DB_CLOSE_DELAY=-1",
+        "empleados.escritura-diferida.habilitada=true"
+})
+@AutoConfigureMockMvc
+class EscrituraDiferidaControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EmpleadoService empleadoService;
+
+    @DisplayName("Test para aceptar un alta con 202 y consultar su estado hasta que se escribe")
+    @Test
+    void testAltaDiferida() throws Exception{
+        //given
+        Empleado empleado = Empleado.builder().nombre("Andy").apellido("Gomez").email("diferida@a.a").build();
+
+        //when
+        MvcResult aceptada = mockMvc.perform(post("/api/empleados")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(empleado)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
+                .andReturn();
+        String location = aceptada.getResponse().getHeader("Location");
+
+        JsonNode estado = null;
+        long fin = System.nanoTime() + 5_000_000_000L;
+        while (System.nanoTime() < fin) {
+            estado = objectMapper.readTree(mockMvc.perform(get(location))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            if (!estado.get("estado").asText().equals("PENDIENTE")) {
+                break;
+            }
+            Thread.sleep(20);
+        }
+
+        //then
+        assertThat(estado.get("estado").asText()).isEqualTo("COMPLETADA");
+        assertThat(estado.get("status").asInt()).isEqualTo(201);
+        assertThat(empleadoService.getEmpleadoById(estado.get("id").asLong())).isPresent();
+    }
+
+    @DisplayName("Test para rechazar con 400 un alta incompleta sin encolarla")
+    @Test
+    void testAltaDiferidaIncompleta() throws Exception{
+        //when
+        mockMvc.perform(post("/api/empleados")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nombre\":\"Andy\"}"))
+                //then
+                .andExpect(status().isBadRequest());
+    }
+
+}